@@ -0,0 +1,249 @@
+package telran.album.bench;
+
+import telran.album.dao.Album;
+import telran.album.model.Photo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/*
+Micro-benchmark of every Album operation, runnable against any Album implementation
+that has an (int capacity) constructor.
+
+    java -cp out telran.album.bench.AlbumBenchmark \
+        impl=telran.album.dao.AlbumImpl,telran.album.dao.IndexedAlbumImpl \
+        sizes=1000,100000,10000000 albums=10,1000 dates=UNIFORM,RECENT ops=getPhotoFromAlbum,getPhotoBetweenDate
+
+Every combination of impl x size x albums x dates x op is warmed up and then measured for
+a number of fixed-time iterations on one thread. Reported per operation: throughput (ops/s),
+average latency (ns/op) and allocation rate (B/op, from the per-thread allocation counter,
+the same source the JMH gc profiler uses). Run with -Xmx sized for the largest store;
+AlbumImpl is quadratic to fill, so keep its sizes small.
+ */
+public class AlbumBenchmark {
+    private static final int BATCH = 1024;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    enum Op {
+        addPhoto, removePhoto, updatePhoto, getPhotoFromAlbum, getAllPhotoFromAlbum, getPhotoBetweenDate, size
+    }
+
+    enum Dates {
+        // spread evenly over three years
+        UNIFORM {
+            @Override
+            LocalDateTime next(Random random) {
+                return NOW.minusSeconds(random.nextInt(3 * 365 * 24 * 3600));
+            }
+        },
+        // most photos in the last few days, with a long tail
+        RECENT {
+            @Override
+            LocalDateTime next(Random random) {
+                double days = -Math.log(1 - random.nextDouble()) * 7;
+                return NOW.minusSeconds((long) (Math.min(days, 3 * 365) * 24 * 3600));
+            }
+        };
+
+        abstract LocalDateTime next(Random random);
+    }
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threads;
+    private long sink;
+
+    public AlbumBenchmark(int warmupIterations, int iterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        threads = bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported() ? sunBean : null;
+        if (threads != null) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    public static void main(String[] args) {
+        String[] impls = {"telran.album.dao.AlbumImpl", "telran.album.dao.IndexedAlbumImpl"};
+        int[] sizes = {1_000, 10_000, 100_000};
+        int[] albumCounts = {10, 1_000};
+        Dates[] dates = Dates.values();
+        Op[] ops = Op.values();
+        int warmup = 3, iterations = 5, millis = 500;
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String[] values = kv.length == 2 ? kv[1].split(",") : new String[0];
+            switch (kv[0]) {
+                case "impl" -> impls = values;
+                case "sizes" -> sizes = Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+                case "albums" -> albumCounts = Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+                case "dates" -> dates = Arrays.stream(values).map(Dates::valueOf).toArray(Dates[]::new);
+                case "ops" -> ops = Arrays.stream(values).map(Op::valueOf).toArray(Op[]::new);
+                case "warmup" -> warmup = Integer.parseInt(values[0]);
+                case "iterations" -> iterations = Integer.parseInt(values[0]);
+                case "millis" -> millis = Integer.parseInt(values[0]);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        AlbumBenchmark benchmark = new AlbumBenchmark(warmup, iterations, millis);
+        System.out.printf("%-20s %-20s %10s %7s %-8s %14s %12s %10s%n",
+                "impl", "op", "size", "albums", "dates", "ops/s", "ns/op", "B/op");
+        for (String impl : impls) {
+            IntFunction<Album> factory = factory(impl);
+            for (int size : sizes) {
+                for (int albumCount : albumCounts) {
+                    for (Dates distribution : dates) {
+                        for (Op op : ops) {
+                            Result result = benchmark.run(factory, op, size, albumCount, distribution);
+                            System.out.printf(Locale.ROOT, "%-20s %-20s %10d %7d %-8s %14.0f %12.1f %10.1f%n",
+                                    impl.substring(impl.lastIndexOf('.') + 1), op, size, albumCount,
+                                    distribution, result.opsPerSecond(), result.nanosPerOp(), result.bytesPerOp());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static IntFunction<Album> factory(String className) {
+        try {
+            Constructor<? extends Album> constructor = Class.forName(className)
+                    .asSubclass(Album.class).getConstructor(int.class);
+            return capacity -> {
+                try {
+                    return constructor.newInstance(capacity);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No Album(int capacity) constructor in " + className, e);
+        }
+    }
+
+    public record Result(double opsPerSecond, double nanosPerOp, double bytesPerOp) {
+    }
+
+    public Result run(IntFunction<Album> factory, Op op, int size, int albumCount, Dates distribution) {
+        Random random = new Random(size * 31L + albumCount);
+        Photo[] data = new Photo[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = new Photo(i % albumCount, i / albumCount, "Title" + i,
+                    "https://cdn.example.com/photos/" + i + ".jpg", distribution.next(random));
+        }
+        int[] picks = new int[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            picks[i] = random.nextInt(size);
+        }
+        Album album = op == Op.addPhoto ? null : fill(factory.apply(size), data);
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(factory, album, op, data, picks);
+        }
+        long ops = 0, nanos = 0, bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] measured = iteration(factory, album, op, data, picks);
+            ops += measured[0];
+            nanos += measured[1];
+            bytes += measured[2];
+        }
+        return new Result(ops * 1e9 / nanos, (double) nanos / ops, threads == null ? -1 : (double) bytes / ops);
+    }
+
+    // returns {operations, elapsed nanos, allocated bytes}; set-up work is excluded from all three
+    private long[] iteration(IntFunction<Album> factory, Album album, Op op, Photo[] data, int[] picks) {
+        long ops = 0, nanos = 0, bytes = 0;
+        int p = 0;
+        while (nanos < iterationNanos) {
+            Album target = op == Op.addPhoto ? factory.apply(data.length) : album;
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            int count = batch(target, op, data, picks, p);
+            nanos += System.nanoTime() - start;
+            bytes += allocatedBytes() - allocated;
+            ops += count;
+            if (op == Op.removePhoto) {
+                restore(target, data, picks, p);
+            }
+            p = (p + 1) & (BATCH - 1);
+        }
+        return new long[]{ops, nanos, bytes};
+    }
+
+    private int batch(Album album, Op op, Photo[] data, int[] picks, int p) {
+        switch (op) {
+            case addPhoto -> {
+                for (Photo photo : data) {
+                    sink += album.addPhoto(photo) ? 1 : 0;
+                }
+                return data.length;
+            }
+            case removePhoto -> {
+                for (int i = 0; i < BATCH / 16; i++) {
+                    Photo photo = data[picks[(p + i) & (BATCH - 1)]];
+                    sink += album.removePhoto(photo.getPhotoId(), photo.getAlbumId()) ? 1 : 0;
+                }
+                return BATCH / 16;
+            }
+            case updatePhoto -> {
+                for (int pick : picks) {
+                    Photo photo = data[pick];
+                    sink += album.updatePhoto(photo.getPhotoId(), photo.getAlbumId(), photo.getUrl()) ? 1 : 0;
+                }
+                return BATCH;
+            }
+            case getPhotoFromAlbum -> {
+                for (int pick : picks) {
+                    Photo photo = data[pick];
+                    sink += album.getPhotoFromAlbum(photo.getPhotoId(), photo.getAlbumId()).getPhotoId();
+                }
+                return BATCH;
+            }
+            case getAllPhotoFromAlbum -> {
+                sink += album.getAllPhotoFromAlbum(data[picks[p]].getAlbumId()).length;
+                return 1;
+            }
+            case getPhotoBetweenDate -> {
+                LocalDate to = data[picks[p]].getDate().toLocalDate();
+                sink += album.getPhotoBetweenDate(to.minusDays(7), to).length;
+                return 1;
+            }
+            case size -> {
+                for (int i = 0; i < BATCH; i++) {
+                    sink += album.size();
+                }
+                return BATCH;
+            }
+        }
+        throw new IllegalArgumentException(op.name());
+    }
+
+    private static void restore(Album album, Photo[] data, int[] picks, int p) {
+        for (int i = 0; i < BATCH / 16; i++) {
+            album.addPhoto(data[picks[(p + i) & (BATCH - 1)]]);
+        }
+    }
+
+    private static Album fill(Album album, Photo[] data) {
+        for (Photo photo : data) {
+            album.addPhoto(photo);
+        }
+        return album;
+    }
+
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public long sink() {
+        return sink;
+    }
+}
@@ -0,0 +1,64 @@
+package telran.album.cdc;
+
+import telran.album.model.Photo;
+
+// one successful mutation. Instances are preallocated and reused: a ring slot is overwritten by later
+// events and each subscriber gets the same instance for every event, so listeners copy what they keep.
+public class ChangeEvent {
+    private long sequence;
+    private ChangeType type;
+    private int albumId;
+    private int photoId;
+    private Photo photo;
+    private String url;
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public int getAlbumId() {
+        return albumId;
+    }
+
+    public int getPhotoId() {
+        return photoId;
+    }
+
+    // the added photo for ADD, null otherwise
+    public Photo getPhoto() {
+        return photo;
+    }
+
+    // the new url for UPDATE, null otherwise
+    public String getUrl() {
+        return url;
+    }
+
+    void set(long sequence, ChangeType type, int albumId, int photoId, Photo photo, String url) {
+        this.sequence = sequence;
+        this.type = type;
+        this.albumId = albumId;
+        this.photoId = photoId;
+        this.photo = photo;
+        this.url = url;
+    }
+
+    void copyFrom(ChangeEvent event) {
+        set(event.sequence, event.type, event.albumId, event.photoId, event.photo, event.url);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", albumId=" + albumId +
+                ", photoId=" + photoId +
+                ", url='" + url + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package telran.album.cdc;
+
+// receives the events of a ChangeStream subscription on the subscription's own thread
+public interface ChangeListener {
+    // endOfBatch marks the last event currently available, a good point to flush work done for the batch
+    void onEvent(ChangeEvent event, boolean endOfBatch);
+
+    // the subscriber fell more than the ring's capacity behind and lost this many events;
+    // it should resynchronize from the album, delivery continues with newer events
+    default void onOverrun(long lost) {
+    }
+}
@@ -0,0 +1,199 @@
+package telran.album.cdc;
+
+import telran.album.model.Photo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Ring buffer of Album mutation events in the style of the LMAX Disruptor. Events live in preallocated
+slots; publishing claims a sequence with one atomic increment, fills the slot in place and releases
+it, so the write path takes no lock and allocates nothing. Any number of threads may publish; a writer
+that laps a slower one waits for it to release the slot before filling it, so one slot is never
+written by two writers at once.
+
+Each subscriber runs on its own daemon thread with its own cursor and is handed every event that is
+available as one batch. Writers never wait for subscribers: a subscriber that falls more than the
+capacity behind finds its next slot overwritten, is told how many events it lost through
+ChangeListener.onOverrun and continues from newer events. lag() shows how far behind it is.
+
+published[i] holds the sequence stored in slot i once it is complete, starting at i - capacity for
+the empty ring, or FILLING | sequence while a writer is filling it; readers check it before and after
+copying a slot, like a seqlock. The writer of sequence s waits for s - capacity to be released.
+ */
+public class ChangeStream {
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int SPINS = 100;
+    private static final long FILLING = Long.MIN_VALUE;
+
+    private final ChangeEvent[] slots;
+    private final long[] published;
+    private final int mask;
+    private final long idleNanos;
+    private final AtomicLong next = new AtomicLong();
+
+    public ChangeStream(int capacity) {
+        this(capacity, 50_000);
+    }
+
+    // idleNanos is how long an idle subscriber parks between polls
+    public ChangeStream(int capacity, long idleNanos) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        if (idleNanos <= 0) {
+            throw new IllegalArgumentException("Illegal idle time: " + idleNanos);
+        }
+        this.idleNanos = idleNanos;
+        mask = capacity - 1;
+        slots = new ChangeEvent[capacity];
+        published = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ChangeEvent();
+            // released by a lap before the first, so the first writers find their slots free
+            published[i] = i - capacity;
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    // number of events published so far, which is also the sequence of the next one
+    public long publishedCount() {
+        return next.get();
+    }
+
+    public void publish(ChangeType type, int albumId, int photoId, Photo photo, String url) {
+        long sequence = next.getAndIncrement();
+        int i = (int) sequence & mask;
+        long previous = sequence - slots.length;
+        for (int spins = 0; (long) PUBLISHED.getAcquire(published, i) != previous; spins++) {
+            if (spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        PUBLISHED.setOpaque(published, i, FILLING | sequence);
+        // readers that see the slot's new contents must also see it marked as being filled
+        VarHandle.storeStoreFence();
+        slots[i].set(sequence, type, albumId, photoId, photo, url);
+        PUBLISHED.setRelease(published, i, sequence);
+    }
+
+    public Subscription subscribe(ChangeListener listener) {
+        return subscribe(listener, next.get());
+    }
+
+    // delivery starts at the given sequence if it is still in the ring, otherwise with an overrun
+    public Subscription subscribe(ChangeListener listener, long fromSequence) {
+        if (fromSequence < 0) {
+            throw new IllegalArgumentException("Illegal sequence: " + fromSequence);
+        }
+        Subscription subscription = new Subscription(listener, fromSequence);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    public class Subscription implements AutoCloseable {
+        private final ChangeListener listener;
+        private final ChangeEvent event = new ChangeEvent();
+        private volatile long cursor;
+        private volatile boolean running = true;
+        private volatile RuntimeException failure;
+        private final Thread thread;
+
+        private Subscription(ChangeListener listener, long cursor) {
+            this.listener = listener;
+            this.cursor = cursor;
+            thread = new Thread(this::run, "album-change-subscriber");
+            thread.setDaemon(true);
+        }
+
+        // events published but not yet delivered to this subscriber
+        public long lag() {
+            return next.get() - cursor;
+        }
+
+        // the exception the listener threw, which ended the subscription, or null
+        public RuntimeException failure() {
+            return failure;
+        }
+
+        // stops delivery and waits for the subscriber thread to finish its current event; if the caller
+        // is interrupted it stops waiting and keeps its interrupt status, the thread ends on its own
+        @Override
+        public void close() {
+            running = false;
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() != thread) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void run() {
+            int idle = 0;
+            try {
+                while (running) {
+                    long from = cursor;
+                    long available = from;
+                    long state;
+                    while ((state = state(available)) == 0 && available - from <= mask) {
+                        available++;
+                    }
+                    if (available > from) {
+                        deliver(from, available);
+                        idle = 0;
+                    } else if (state > 0) {
+                        overrun(from);
+                    } else if (++idle < SPINS) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(idleNanos);
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+                running = false;
+            }
+        }
+
+        private void deliver(long from, long to) {
+            for (long sequence = from; sequence < to; sequence++) {
+                int i = (int) sequence & mask;
+                event.copyFrom(slots[i]);
+                VarHandle.loadLoadFence();
+                if ((long) PUBLISHED.getOpaque(published, i) != sequence) {
+                    overrun(sequence);
+                    return;
+                }
+                listener.onEvent(event, sequence == to - 1);
+                cursor = sequence + 1;
+            }
+        }
+
+        // resumes half a ring behind the writers, leaving room before they lap this subscriber again
+        private void overrun(long from) {
+            long resume = Math.max(from + 1, next.get() - slots.length / 2);
+            cursor = resume;
+            listener.onOverrun(resume - from);
+        }
+    }
+
+    // 0 if the sequence is readable, negative if it is not published yet, positive if it was overwritten
+    private long state(long sequence) {
+        long value = (long) PUBLISHED.getAcquire(published, (int) sequence & mask);
+        if (value == sequence) {
+            return 0;
+        }
+        long stored = value < -slots.length ? value & ~FILLING : value;
+        return stored > sequence ? 1 : -1;
+    }
+}
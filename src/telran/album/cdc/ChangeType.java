@@ -0,0 +1,6 @@
+package telran.album.cdc;
+
+// the Album mutation an event records
+public enum ChangeType {
+    ADD, REMOVE, UPDATE
+}
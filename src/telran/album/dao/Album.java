@@ -3,8 +3,21 @@ package telran.album.dao;
 import telran.album.model.Photo;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
 
 public interface Album {
+    // order of the date keyset queries: by date, photos without a date first, ties broken by (albumId, photoId)
+    Comparator<Photo> DATE_ORDER = (p1, p2) -> {
+        int res = p1.getDate() == null ? (p2.getDate() == null ? 0 : -1)
+                : p2.getDate() == null ? 1 : p1.getDate().compareTo(p2.getDate());
+        if (res == 0) {
+            res = Integer.compare(p1.getAlbumId(), p2.getAlbumId());
+        }
+        return res != 0 ? res : Integer.compare(p1.getPhotoId(), p2.getPhotoId());
+    };
+
     boolean addPhoto(Photo photo);
 
     boolean removePhoto(int photoId, int albumId);
@@ -18,4 +31,71 @@ public interface Album {
     Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo);
 
     int size();
+
+    // streams are lazy where the implementation allows it; the album must not be modified while one is consumed
+    default Stream<Photo> streamAllPhotoFromAlbum(int albumId) {
+        return Arrays.stream(getAllPhotoFromAlbum(albumId));
+    }
+
+    // keyset paging: photos of the album with photoId > afterPhotoId, in photoId order
+    default Stream<Photo> streamAllPhotoFromAlbum(int albumId, int afterPhotoId) {
+        return streamAllPhotoFromAlbum(albumId)
+                .filter(p -> p.getPhotoId() > afterPhotoId)
+                .sorted(Comparator.comparingInt(Photo::getPhotoId));
+    }
+
+    default Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return Arrays.stream(getPhotoBetweenDate(dateFrom, dateTo));
+    }
+
+    // keyset paging: photos of the range that follow after in DATE_ORDER, null for the first page
+    default Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo, Photo after) {
+        Stream<Photo> photos = streamPhotoBetweenDate(dateFrom, dateTo);
+        if (after != null) {
+            photos = photos.filter(p -> DATE_ORDER.compare(p, after) > 0);
+        }
+        return photos.sorted(DATE_ORDER);
+    }
+
+    // the n photos of the album with the latest dates, newest first; photos without a date are left out
+    default Photo[] getLatestPhotos(int albumId, int n) {
+        return LatestPhotos.select(streamAllPhotoFromAlbum(albumId), n);
+    }
+
+    // the n photos with the latest dates in the whole album, newest first; photos without a date are left out
+    default Photo[] getLatestPhotos(int n) {
+        return LatestPhotos.select(streamPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX), n);
+    }
+
+    default int addPhotos(Photo[] photos) {
+        int count = 0;
+        for (Photo photo : photos) {
+            if (addPhoto(photo)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // photos are matched by (albumId, photoId), the rest of each pattern is ignored
+    default int removePhotos(Photo[] photos) {
+        int count = 0;
+        for (Photo photo : photos) {
+            if (photo != null && removePhoto(photo.getPhotoId(), photo.getAlbumId())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // sets the url of each stored photo to the url of the matching pattern
+    default int updatePhotos(Photo[] photos) {
+        int count = 0;
+        for (Photo photo : photos) {
+            if (photo != null && updatePhoto(photo.getPhotoId(), photo.getAlbumId(), photo.getUrl())) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
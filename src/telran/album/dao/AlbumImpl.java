@@ -3,13 +3,26 @@ package telran.album.dao;
 import telran.album.model.Photo;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+public class AlbumImpl implements Album, ScanStatistics {
+    // stores smaller than this are scanned on the calling thread
+    static final int PARALLEL_THRESHOLD = 1 << 15;
+    private static final int SEGMENT = 1 << 12;
 
-public class AlbumImpl implements Album {
     private Photo[] photos;
     private int size;
+    private final ScanCounter scans = new ScanCounter();
 
     public AlbumImpl(int capacity) {
         photos = new Photo[capacity];
@@ -40,21 +53,24 @@ public class AlbumImpl implements Album {
 
     @Override
     public boolean updatePhoto(int photoId, int albumId, String url) {
-        Photo photo = getPhotoFromAlbum(photoId, albumId);
-        if (photo == null) {
-            return false;
+        for (int i = 0; i < size; i++) {
+            if (photos[i].getAlbumId() == albumId && photos[i].getPhotoId() == photoId) {
+                setUrl(i, url);
+                return true;
+            }
         }
-        photo.setUrl(url);
-        return true;
+        return false;
     }
 
     @Override
     public Photo getPhotoFromAlbum(int photoId, int albumId) {
         for (int i = 0; i < size; i++) {
             if (photos[i].getAlbumId() == albumId && photos[i].getPhotoId() == photoId) {
+                scans.add(i + 1);
                 return photos[i];
             }
         }
+        scans.add(size);
         return null;
     }
 
@@ -65,8 +81,9 @@ public class AlbumImpl implements Album {
 
     @Override
     public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
-        return findPicturesByPredicate(p -> p.getDate().compareTo(dateFrom.atStartOfDay())>=0
-        && p.getDate().compareTo(dateTo.atTime(LocalTime.MAX)) <=0);
+        LocalDateTime from = dateFrom.atStartOfDay();
+        LocalDateTime to = dateTo.atTime(LocalTime.MAX);
+        return findPicturesByPredicate(p -> p.getDate().compareTo(from) >= 0 && p.getDate().compareTo(to) <= 0);
     }
 
     @Override
@@ -74,17 +91,140 @@ public class AlbumImpl implements Album {
         return size;
     }
 
+    @Override
+    public void setScanCounting(boolean enabled) {
+        scans.setEnabled(enabled);
+    }
+
+    @Override
+    public long elementsScanned() {
+        return scans.sum();
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId) {
+        return Arrays.stream(photos, 0, size).filter(p -> p.getAlbumId() == albumId);
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        LocalDateTime from = dateFrom.atStartOfDay();
+        LocalDateTime to = dateTo.atTime(LocalTime.MAX);
+        return Arrays.stream(photos, 0, size)
+                .filter(p -> p.getDate().compareTo(from) >= 0 && p.getDate().compareTo(to) <= 0);
+    }
+
+    // batch operations build one hash set/map of the stored photos instead of scanning per item
+    @Override
+    public int addPhotos(Photo[] newPhotos) {
+        Set<Photo> present = new HashSet<>(Arrays.asList(photos).subList(0, size));
+        Photo[] accepted = new Photo[Math.min(newPhotos.length, photos.length - size)];
+        int j = 0;
+        for (int i = 0; i < newPhotos.length && j < accepted.length; i++) {
+            if (newPhotos[i] != null && present.add(newPhotos[i])) {
+                accepted[j++] = newPhotos[i];
+            }
+        }
+        System.arraycopy(accepted, 0, photos, size, j);
+        size += j;
+        return j;
+    }
+
+    @Override
+    public int removePhotos(Photo[] patterns) {
+        Set<Photo> removed = new HashSet<>(Arrays.asList(patterns));
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed.contains(photos[i])) {
+                photos[j++] = photos[i];
+            }
+        }
+        int count = size - j;
+        Arrays.fill(photos, j, size, null);
+        size = j;
+        return count;
+    }
+
+    @Override
+    public int updatePhotos(Photo[] patterns) {
+        Map<Photo, Integer> stored = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            stored.put(photos[i], i);
+        }
+        int count = 0;
+        for (Photo pattern : patterns) {
+            Integer i = pattern == null ? null : stored.get(pattern);
+            if (i != null) {
+                setUrl(i, pattern.getUrl());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // the predicate may be evaluated on several threads at once, so it must not keep state
+    public Photo[] findPhotos(Predicate<Photo> predicate) {
+        return findPicturesByPredicate(predicate);
+    }
+
+    private void setUrl(int i, String url) {
+        photos[i] = photos[i].withUrl(url);
+    }
+
     //==========_________findPicturesByPredicate____===========
     private Photo[] findPicturesByPredicate(Predicate<Photo> predicate) {
-        Photo[] arrayTemporary = new Photo[size];
+        scans.add(size);
+        if (size < PARALLEL_THRESHOLD) {
+            return scan(photos, predicate, 0, size);
+        }
+        return ForkJoinPool.commonPool().invoke(new ScanTask(photos, predicate, 0, size));
+    }
+
+    private static Photo[] scan(Photo[] photos, Predicate<Photo> predicate, int from, int to) {
+        Photo[] arrayTemporary = new Photo[to - from];
         int j = 0;
-        for (int i = 0; i < size; i++) {
+        for (int i = from; i < to; i++) {
             if (predicate.test(photos[i])) {
                 arrayTemporary[j++] = photos[i];
             }
         }
         return Arrays.copyOf(arrayTemporary, j);
     }
+
+    // splits the range in halves down to SEGMENT photos; each leaf fills its own array, merged on join
+    private static class ScanTask extends RecursiveTask<Photo[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Photo[] photos;
+        private final Predicate<Photo> predicate;
+        private final int from;
+        private final int to;
+
+        ScanTask(Photo[] photos, Predicate<Photo> predicate, int from, int to) {
+            this.photos = photos;
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Photo[] compute() {
+            if (to - from <= SEGMENT) {
+                return scan(photos, predicate, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(photos, predicate, from, middle);
+            left.fork();
+            Photo[] right = new ScanTask(photos, predicate, middle, to).compute();
+            Photo[] res = left.join();
+            if (right.length == 0) {
+                return res;
+            }
+            res = Arrays.copyOf(res, res.length + right.length);
+            System.arraycopy(right, 0, res, res.length - right.length, right.length);
+            return res;
+        }
+    }
 }
 
 
@@ -0,0 +1,364 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/*
+Binary snapshot of an album, written and read as a stream over NIO channels.
+
+header   - magic int, version int, photo count int, string count int
+strings  - the distinct titles and url prefixes (up to the last '/'): varint length + UTF-8 bytes each
+records  - one per photo in DATE_ORDER:
+           zigzag varint albumId, zigzag varint photoId,
+           varint nano + 1 (0 for a null date), then zigzag varint epoch second delta to the previous date,
+           varint title string + 1 (0 for null),
+           varint url prefix string + 1 (0 for null), then varint suffix length + UTF-8 suffix
+footer   - CRC32 int of everything before it
+
+load() decodes one record at a time and adds it to a new IndexedAlbumImpl, so only the album itself
+and one buffer are held in memory; the footer is checked once every record is in. Photos without a
+date can be snapshotted only from an IndexedAlbumImpl; other albums are enumerated with
+getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).
+ */
+public final class AlbumSnapshot {
+    private static final int MAGIC = 0x414C4253; // "ALBS"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private AlbumSnapshot() {
+    }
+
+    public static void write(Album album, WritableByteChannel channel) throws IOException {
+        Photo[] photos;
+        if (album instanceof IndexedAlbumImpl indexed) {
+            photos = indexed.photosByDate();
+        } else {
+            photos = album.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX);
+            if (photos.length != album.size()) {
+                throw new IllegalStateException("Photos without a date cannot be written from this album");
+            }
+            Arrays.parallelSort(photos, Album.DATE_ORDER);
+        }
+        write(photos, channel);
+    }
+
+    // photos must be in DATE_ORDER
+    static void write(Photo[] photos, WritableByteChannel channel) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Photo photo : photos) {
+            intern(photo.getTitle(), ids, strings);
+            String url = photo.getUrl();
+            if (url != null) {
+                intern(url.substring(0, url.lastIndexOf('/') + 1), ids, strings);
+            }
+        }
+        Writer out = new Writer(channel);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(photos.length);
+        out.putInt(strings.size());
+        for (String string : strings) {
+            out.putBytes(string.getBytes(StandardCharsets.UTF_8));
+        }
+        long seconds = 0;
+        for (Photo photo : photos) {
+            out.putVarint(zigzag(photo.getAlbumId()));
+            out.putVarint(zigzag(photo.getPhotoId()));
+            LocalDateTime date = photo.getDate();
+            if (date == null) {
+                out.putVarint(0);
+            } else {
+                long current = date.toEpochSecond(ZoneOffset.UTC);
+                out.putVarint(date.getNano() + 1);
+                out.putVarint(zigzag(current - seconds));
+                seconds = current;
+            }
+            out.putVarint(photo.getTitle() == null ? 0 : ids.get(photo.getTitle()) + 1);
+            String url = photo.getUrl();
+            if (url == null) {
+                out.putVarint(0);
+            } else {
+                int end = url.lastIndexOf('/') + 1;
+                out.putVarint(ids.get(url.substring(0, end)) + 1);
+                out.putBytes(url.substring(end).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        out.finish();
+    }
+
+    // photos of the snapshot in DATE_ORDER
+    public static Photo[] read(ReadableByteChannel channel) throws IOException {
+        Records records = new Records(channel);
+        Photo[] photos = new Photo[records.count];
+        for (int i = 0; i < photos.length; i++) {
+            photos[i] = records.next();
+        }
+        records.finish();
+        return photos;
+    }
+
+    // a new IndexedAlbumImpl filled record by record as the snapshot is read, without an array of all photos
+    public static IndexedAlbumImpl load(ReadableByteChannel channel) throws IOException {
+        Records records = new Records(channel);
+        IndexedAlbumImpl album = new IndexedAlbumImpl();
+        album.ensureCapacity(records.count);
+        for (int i = 0; i < records.count; i++) {
+            Photo photo = records.next();
+            if (!album.addPhoto(photo)) {
+                throw new IOException("Corrupt snapshot: duplicate photo " + photo);
+            }
+        }
+        records.finish();
+        return album;
+    }
+
+    private static void intern(String string, Map<String, Integer> ids, List<String> strings) {
+        if (string != null && ids.putIfAbsent(string, strings.size()) == null) {
+            strings.add(string);
+        }
+    }
+
+    private static String string(String[] strings, int id) throws IOException {
+        if (id < 0 || id > strings.length) {
+            throw new IOException("Corrupt snapshot: string " + id);
+        }
+        return id == 0 ? null : strings[id - 1];
+    }
+
+    private static int zigzag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    // buffered output that keeps a running CRC of everything it writes
+    private static class Writer {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+
+        Writer(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putVarint(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putVarint(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            putVarint(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    // the records of a snapshot, decoded one at a time after the header and the string table
+    private static class Records {
+        private final Reader in;
+        private final String[] strings;
+        final int count;
+        private long seconds;
+
+        Records(ReadableByteChannel channel) throws IOException {
+            in = new Reader(channel);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not an album snapshot");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            count = in.getInt();
+            int stringCount = in.getInt();
+            if (count < 0 || stringCount < 0) {
+                throw new IOException("Corrupt snapshot header");
+            }
+            strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = in.getString();
+            }
+        }
+
+        Photo next() throws IOException {
+            int albumId = unzigzag(in.getVarint());
+            int photoId = unzigzag(in.getVarint());
+            int nano = in.getVarint() - 1;
+            LocalDateTime date = null;
+            if (nano >= 0) {
+                seconds += unzigzag(in.getVarlong());
+                try {
+                    date = LocalDateTime.ofEpochSecond(seconds, nano, ZoneOffset.UTC);
+                } catch (DateTimeException e) {
+                    throw new IOException("Corrupt snapshot: date", e);
+                }
+            }
+            String title = string(strings, in.getVarint());
+            String prefix = string(strings, in.getVarint());
+            String url = prefix == null ? null : prefix.concat(in.getString());
+            return new Photo(albumId, photoId, title, url, date);
+        }
+
+        void finish() throws IOException {
+            in.finish();
+        }
+    }
+
+    // buffered input that checks the footer CRC against everything consumed before it
+    private static class Reader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).limit(0);
+        private final CRC32 crc = new CRC32();
+
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        int getVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                ensure(1);
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt snapshot: varint too long");
+        }
+
+        long getVarlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                ensure(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt snapshot: varint too long");
+        }
+
+        String getString() throws IOException {
+            int length = getVarint();
+            if (length < 0) {
+                throw new IOException("Corrupt snapshot: string length " + length);
+            }
+            if (length <= buffer.remaining()) {
+                String res = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                return res;
+            }
+            byte[] bytes = new byte[length];
+            for (int offset = 0; offset < length; ) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), length - offset);
+                buffer.get(bytes, offset, chunk);
+                offset += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void finish() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            int expected = (int) crc.getValue();
+            crc.reset();
+            if (getInt() != expected) {
+                throw new IOException("Corrupt snapshot: checksum mismatch");
+            }
+        }
+
+        // makes at least the given number of bytes available, folding the consumed ones into the CRC
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated snapshot");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
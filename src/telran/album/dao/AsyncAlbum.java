@@ -0,0 +1,40 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+// non-blocking counterpart of Album: every operation returns at once and completes when the album has answered.
+// Album's streams are offered as keyset pages, since a stream would be consumed after the call completed
+public interface AsyncAlbum {
+    CompletableFuture<Boolean> addPhoto(Photo photo);
+
+    CompletableFuture<Boolean> removePhoto(int photoId, int albumId);
+
+    CompletableFuture<Boolean> updatePhoto(int photoId, int albumId, String url);
+
+    CompletableFuture<Photo> getPhotoFromAlbum(int photoId, int albumId);
+
+    CompletableFuture<Photo[]> getAllPhotoFromAlbum(int albumId);
+
+    CompletableFuture<Photo[]> getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo);
+
+    CompletableFuture<Integer> size();
+
+    // a page of Album.streamAllPhotoFromAlbum(albumId, afterPhotoId): at most limit photos in photoId order
+    CompletableFuture<Photo[]> getAllPhotoFromAlbum(int albumId, int afterPhotoId, int limit);
+
+    // a page of Album.streamPhotoBetweenDate(dateFrom, dateTo, after): at most limit photos in DATE_ORDER
+    CompletableFuture<Photo[]> getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo, Photo after, int limit);
+
+    CompletableFuture<Photo[]> getLatestPhotos(int albumId, int n);
+
+    CompletableFuture<Photo[]> getLatestPhotos(int n);
+
+    CompletableFuture<Integer> addPhotos(Photo[] photos);
+
+    CompletableFuture<Integer> removePhotos(Photo[] photos);
+
+    CompletableFuture<Integer> updatePhotos(Photo[] photos);
+}
@@ -0,0 +1,215 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/*
+Runs the calls of a blocking Album on an executor, one task per call, so callers never block.
+The album is called from many threads at once and must be thread-safe: ConcurrentAlbum, MvccAlbum
+or ShardedAlbum.
+
+Without an explicit executor a virtual thread per task is used where the JDK has them (21+,
+looked up reflectively so this still runs on 17) and a cached pool of daemon threads otherwise.
+
+Concurrent getPhotoFromAlbum calls for the same photo are coalesced: while one lookup is in flight,
+later callers get a copy of its future instead of starting another. Writes to the photo detach the
+in-flight lookup when they are submitted and again when they complete, before their future does, so
+a read that starts after a write's future completes never joins a lookup that read the album before it.
+ */
+public class AsyncAlbumAdapter implements AsyncAlbum, AutoCloseable {
+    private final Album album;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final ConcurrentHashMap<Long, CompletableFuture<Photo>> lookups = new ConcurrentHashMap<>();
+
+    public AsyncAlbumAdapter(Album album) {
+        this(album, newVirtualThreadExecutor(), true);
+    }
+
+    public AsyncAlbumAdapter(Album album, Executor executor) {
+        this(album, executor, false);
+    }
+
+    private AsyncAlbumAdapter(Album album, Executor executor, boolean ownsExecutor) {
+        this.album = album;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "album-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addPhoto(Photo photo) {
+        if (photo == null) {
+            return supply(() -> album.addPhoto(null));
+        }
+        return write(IndexedAlbumImpl.key(photo.getAlbumId(), photo.getPhotoId()), () -> album.addPhoto(photo));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removePhoto(int photoId, int albumId) {
+        return write(IndexedAlbumImpl.key(albumId, photoId), () -> album.removePhoto(photoId, albumId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePhoto(int photoId, int albumId, String url) {
+        return write(IndexedAlbumImpl.key(albumId, photoId), () -> album.updatePhoto(photoId, albumId, url));
+    }
+
+    @Override
+    public CompletableFuture<Photo> getPhotoFromAlbum(int photoId, int albumId) {
+        long key = IndexedAlbumImpl.key(albumId, photoId);
+        CompletableFuture<Photo> lookup = lookups.get(key);
+        if (lookup == null) {
+            CompletableFuture<Photo> created = new CompletableFuture<>();
+            lookup = lookups.putIfAbsent(key, created);
+            if (lookup == null) {
+                lookup = created;
+                run(created, () -> album.getPhotoFromAlbum(photoId, albumId), () -> lookups.remove(key, created));
+            }
+        }
+        // a copy, so one caller completing or cancelling its future does not affect the others
+        return lookup.copy();
+    }
+
+    @Override
+    public CompletableFuture<Photo[]> getAllPhotoFromAlbum(int albumId) {
+        return supply(() -> album.getAllPhotoFromAlbum(albumId));
+    }
+
+    @Override
+    public CompletableFuture<Photo[]> getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return supply(() -> album.getPhotoBetweenDate(dateFrom, dateTo));
+    }
+
+    @Override
+    public CompletableFuture<Integer> size() {
+        return supply(album::size);
+    }
+
+    @Override
+    public CompletableFuture<Photo[]> getAllPhotoFromAlbum(int albumId, int afterPhotoId, int limit) {
+        return supply(() -> album.streamAllPhotoFromAlbum(albumId, afterPhotoId).limit(checkLimit(limit))
+                .toArray(Photo[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Photo[]> getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo, Photo after,
+                                                         int limit) {
+        return supply(() -> album.streamPhotoBetweenDate(dateFrom, dateTo, after).limit(checkLimit(limit))
+                .toArray(Photo[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Photo[]> getLatestPhotos(int albumId, int n) {
+        return supply(() -> album.getLatestPhotos(albumId, n));
+    }
+
+    @Override
+    public CompletableFuture<Photo[]> getLatestPhotos(int n) {
+        return supply(() -> album.getLatestPhotos(n));
+    }
+
+    @Override
+    public CompletableFuture<Integer> addPhotos(Photo[] photos) {
+        return writeAll(photos, () -> album.addPhotos(photos));
+    }
+
+    @Override
+    public CompletableFuture<Integer> removePhotos(Photo[] photos) {
+        return writeAll(photos, () -> album.removePhotos(photos));
+    }
+
+    @Override
+    public CompletableFuture<Integer> updatePhotos(Photo[] photos) {
+        return writeAll(photos, () -> album.updatePhotos(photos));
+    }
+
+    // shuts down the executor if this adapter created it
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    // a lookup that started before the write ran may still be in flight when it completes, so it is
+    // detached again then; one that started after the write ran is detached too and only loses coalescing
+    private CompletableFuture<Boolean> write(long key, Supplier<Boolean> call) {
+        lookups.remove(key);
+        CompletableFuture<Boolean> res = new CompletableFuture<>();
+        run(res, call, () -> lookups.remove(key));
+        return res;
+    }
+
+    // a batch detaches the lookups of all its photos, like write does for one
+    private CompletableFuture<Integer> writeAll(Photo[] photos, Supplier<Integer> call) {
+        if (photos == null) {
+            return supply(call);
+        }
+        Runnable detach = () -> {
+            for (Photo photo : photos) {
+                if (photo != null) {
+                    lookups.remove(IndexedAlbumImpl.key(photo.getAlbumId(), photo.getPhotoId()));
+                }
+            }
+        };
+        detach.run();
+        CompletableFuture<Integer> res = new CompletableFuture<>();
+        run(res, call, detach);
+        return res;
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Illegal limit: " + limit);
+        }
+        return limit;
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> call) {
+        CompletableFuture<T> res = new CompletableFuture<>();
+        run(res, call, () -> {
+        });
+        return res;
+    }
+
+    // makes the call on the executor, runs done and then completes the future with the call's outcome
+    private <T> void run(CompletableFuture<T> future, Supplier<T> call, Runnable done) {
+        try {
+            executor.execute(() -> {
+                T value;
+                try {
+                    value = call.get();
+                } catch (Throwable e) {
+                    done.run();
+                    future.completeExceptionally(e);
+                    return;
+                }
+                done.run();
+                future.complete(value);
+            });
+        } catch (RejectedExecutionException e) {
+            done.run();
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+
+// read-through cache of getPhotoFromAlbum in front of a slower album; not thread-safe, like AlbumImpl
+public class CachingAlbum implements Album {
+    public enum EvictionPolicy {
+        LRU, TINY_LFU
+    }
+
+    private final Album album;
+    private final PhotoCache cache;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public CachingAlbum(Album album, int maximumSize) {
+        this(album, maximumSize, EvictionPolicy.TINY_LFU);
+    }
+
+    public CachingAlbum(Album album, int maximumSize, EvictionPolicy policy) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Illegal maximum size: " + maximumSize);
+        }
+        this.album = album;
+        cache = policy == EvictionPolicy.LRU ? new LruPhotoCache(maximumSize) : new TinyLfuPhotoCache(maximumSize);
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        return album.addPhoto(photo);
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        cache.invalidate(IndexedAlbumImpl.key(albumId, photoId));
+        return album.removePhoto(photoId, albumId);
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        cache.invalidate(IndexedAlbumImpl.key(albumId, photoId));
+        return album.updatePhoto(photoId, albumId, url);
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        long key = IndexedAlbumImpl.key(albumId, photoId);
+        Photo photo = cache.get(key);
+        if (photo != null) {
+            hitCount++;
+            return photo;
+        }
+        missCount++;
+        photo = album.getPhotoFromAlbum(photoId, albumId);
+        if (photo != null && cache.put(key, photo)) {
+            evictionCount++;
+        }
+        return photo;
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        return album.getAllPhotoFromAlbum(albumId);
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return album.getPhotoBetweenDate(dateFrom, dateTo);
+    }
+
+    @Override
+    public int size() {
+        return album.size();
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        return album.getLatestPhotos(albumId, n);
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        return album.getLatestPhotos(n);
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    public int cachedCount() {
+        return cache.size();
+    }
+}
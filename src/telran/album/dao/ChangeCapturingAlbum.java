@@ -0,0 +1,137 @@
+package telran.album.dao;
+
+import telran.album.cdc.ChangeStream;
+import telran.album.cdc.ChangeType;
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// publishes every successful addPhoto, removePhoto and updatePhoto of the wrapped album to a ChangeStream,
+// after the album has applied it. Thread-safe when the wrapped album is. Writes are striped by photo over
+// locks held across the wrapped call and the publish, so the events of one photo are sequenced in the order
+// they were applied; writes to different photos still run concurrently and may be sequenced either way.
+public class ChangeCapturingAlbum implements Album {
+    private static final int LOCK_STRIPES = 64;
+
+    private final Album album;
+    private final ChangeStream changes;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    public ChangeCapturingAlbum(Album album, ChangeStream changes) {
+        this.album = album;
+        this.changes = changes;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ChangeStream changes() {
+        return changes;
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (photo == null) {
+            return album.addPhoto(null);
+        }
+        Lock lock = lockFor(photo.getPhotoId(), photo.getAlbumId());
+        lock.lock();
+        try {
+            if (!album.addPhoto(photo)) {
+                return false;
+            }
+            changes.publish(ChangeType.ADD, photo.getAlbumId(), photo.getPhotoId(), photo, null);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        Lock lock = lockFor(photoId, albumId);
+        lock.lock();
+        try {
+            if (!album.removePhoto(photoId, albumId)) {
+                return false;
+            }
+            changes.publish(ChangeType.REMOVE, albumId, photoId, null, null);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        Lock lock = lockFor(photoId, albumId);
+        lock.lock();
+        try {
+            if (!album.updatePhoto(photoId, albumId, url)) {
+                return false;
+            }
+            changes.publish(ChangeType.UPDATE, albumId, photoId, null, url);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        return album.getPhotoFromAlbum(photoId, albumId);
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        return album.getAllPhotoFromAlbum(albumId);
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return album.getPhotoBetweenDate(dateFrom, dateTo);
+    }
+
+    @Override
+    public int size() {
+        return album.size();
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId) {
+        return album.streamAllPhotoFromAlbum(albumId);
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId, int afterPhotoId) {
+        return album.streamAllPhotoFromAlbum(albumId, afterPhotoId);
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return album.streamPhotoBetweenDate(dateFrom, dateTo);
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo, Photo after) {
+        return album.streamPhotoBetweenDate(dateFrom, dateTo, after);
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        return album.getLatestPhotos(albumId, n);
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        return album.getLatestPhotos(n);
+    }
+
+    private Lock lockFor(int photoId, int albumId) {
+        long key = IndexedAlbumImpl.key(albumId, photoId) * 0x9E3779B97F4A7C15L;
+        return locks[(int) (key >>> 58)];
+    }
+}
@@ -0,0 +1,293 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// photos are kept as parallel primitive columns and a shared UTF-8 byte arena for titles and urls;
+// Photo objects are created only when returned, so they are detached copies of the stored row.
+// The arena is a list of chunks of at most CHUNK_SIZE bytes, longer strings get a chunk of their own,
+// and a string is addressed by a long holding its chunk in the high and its offset in the low half
+public class ColumnarAlbumImpl implements Album, ScanStatistics {
+    private static final int INITIAL_ROWS = 16;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private final int capacity;
+    private int size;
+    private int[] albumIds;
+    private int[] photoIds;
+    private long[] seconds;
+    private int[] nanos;
+    // address and length of each string in the arena, length -1 for null
+    private long[] titleAddresses;
+    private int[] titleLengths;
+    private long[] urlAddresses;
+    private int[] urlLengths;
+    private byte[][] chunks = {new byte[INITIAL_ROWS * 32]};
+    private int chunkCount = 1;
+    // bytes used in the last chunk
+    private int chunkUsed;
+    // bytes of all strings stored, and of those that were removed or replaced since
+    private long arenaSize;
+    private long arenaGarbage;
+    private final ScanCounter scans = new ScanCounter();
+    // (albumId, photoId) -> row
+    private final LongIntHashMap index = new LongIntHashMap();
+
+    public ColumnarAlbumImpl() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public ColumnarAlbumImpl(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        int rows = Math.min(capacity, INITIAL_ROWS);
+        albumIds = new int[rows];
+        photoIds = new int[rows];
+        seconds = new long[rows];
+        nanos = new int[rows];
+        titleAddresses = new long[rows];
+        titleLengths = new int[rows];
+        urlAddresses = new long[rows];
+        urlLengths = new int[rows];
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (photo == null || size == capacity) {
+            return false;
+        }
+        long key = IndexedAlbumImpl.key(photo.getAlbumId(), photo.getPhotoId());
+        if (index.get(key) != LongIntHashMap.MISSING) {
+            return false;
+        }
+        // the allocations come first, so an add that runs out of memory leaves no row and no index entry
+        if (size == albumIds.length) {
+            grow();
+        }
+        byte[] title = bytes(photo.getTitle());
+        byte[] url = bytes(photo.getUrl());
+        long titleAddress = store(title);
+        long urlAddress = store(url);
+        int row = size++;
+        albumIds[row] = photo.getAlbumId();
+        photoIds[row] = photo.getPhotoId();
+        LocalDateTime date = photo.getDate();
+        seconds[row] = date == null ? NO_DATE : date.toEpochSecond(ZoneOffset.UTC);
+        nanos[row] = date == null ? 0 : date.getNano();
+        titleAddresses[row] = titleAddress;
+        titleLengths[row] = length(title);
+        urlAddresses[row] = urlAddress;
+        urlLengths[row] = length(url);
+        index.put(key, row);
+        return true;
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        int row = index.remove(IndexedAlbumImpl.key(albumId, photoId));
+        if (row == LongIntHashMap.MISSING) {
+            return false;
+        }
+        arenaGarbage += Math.max(titleLengths[row], 0) + Math.max(urlLengths[row], 0);
+        int last = --size;
+        if (row < last) {
+            albumIds[row] = albumIds[last];
+            photoIds[row] = photoIds[last];
+            seconds[row] = seconds[last];
+            nanos[row] = nanos[last];
+            titleAddresses[row] = titleAddresses[last];
+            titleLengths[row] = titleLengths[last];
+            urlAddresses[row] = urlAddresses[last];
+            urlLengths[row] = urlLengths[last];
+            index.put(IndexedAlbumImpl.key(albumIds[row], photoIds[row]), row);
+        }
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        int row = index.get(IndexedAlbumImpl.key(albumId, photoId));
+        if (row == LongIntHashMap.MISSING) {
+            return false;
+        }
+        byte[] bytes = bytes(url);
+        long address = store(bytes);
+        arenaGarbage += Math.max(urlLengths[row], 0);
+        urlAddresses[row] = address;
+        urlLengths[row] = length(bytes);
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        int row = index.get(IndexedAlbumImpl.key(albumId, photoId));
+        return row == LongIntHashMap.MISSING ? null : materialize(row);
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        scans.add(size);
+        int[] rows = new int[16];
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (albumIds[i] == albumId) {
+                if (j == rows.length) {
+                    rows = Arrays.copyOf(rows, j * 2);
+                }
+                rows[j++] = i;
+            }
+        }
+        return materialize(rows, j);
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        // whole seconds are enough: the upper bound is the last nanosecond of dateTo's last second
+        long from = dateFrom.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = dateTo.atTime(LocalTime.MAX).toEpochSecond(ZoneOffset.UTC);
+        scans.add(size);
+        int[] rows = new int[16];
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            long s = seconds[i];
+            if (s >= from && s <= to) {
+                if (j == rows.length) {
+                    rows = Arrays.copyOf(rows, j * 2);
+                }
+                rows[j++] = i;
+            }
+        }
+        return materialize(rows, j);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void setScanCounting(boolean enabled) {
+        scans.setEnabled(enabled);
+    }
+
+    @Override
+    public long elementsScanned() {
+        return scans.sum();
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId) {
+        return IntStream.range(0, size)
+                .filter(i -> albumIds[i] == albumId)
+                .mapToObj(this::materialize);
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        long from = dateFrom.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = dateTo.atTime(LocalTime.MAX).toEpochSecond(ZoneOffset.UTC);
+        return IntStream.range(0, size)
+                .filter(i -> seconds[i] >= from && seconds[i] <= to)
+                .mapToObj(this::materialize);
+    }
+
+    private Photo[] materialize(int[] rows, int count) {
+        Photo[] res = new Photo[count];
+        for (int i = 0; i < count; i++) {
+            res[i] = materialize(rows[i]);
+        }
+        return res;
+    }
+
+    private Photo materialize(int row) {
+        LocalDateTime date = seconds[row] == NO_DATE ? null
+                : LocalDateTime.ofEpochSecond(seconds[row], nanos[row], ZoneOffset.UTC);
+        return new Photo(albumIds[row], photoIds[row], string(titleAddresses[row], titleLengths[row]),
+                string(urlAddresses[row], urlLengths[row]), date);
+    }
+
+    private String string(long address, int length) {
+        return length < 0 ? null
+                : new String(chunks[(int) (address >>> 32)], (int) address, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? -1 : bytes.length;
+    }
+
+    // appends the bytes to the arena and returns their address, 0 for null
+    private long store(byte[] bytes) {
+        return bytes == null ? 0 : store(bytes, 0, bytes.length);
+    }
+
+    private long store(byte[] bytes, int offset, int length) {
+        byte[] chunk = chunks[chunkCount - 1];
+        if (chunkUsed + length > chunk.length) {
+            chunk = new byte[Math.max(length, Math.min(CHUNK_SIZE, Math.max(INITIAL_ROWS * 32, chunk.length * 2)))];
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = chunk;
+            chunkUsed = 0;
+        }
+        System.arraycopy(bytes, offset, chunk, chunkUsed, length);
+        long address = (long) (chunkCount - 1) << 32 | chunkUsed;
+        chunkUsed += length;
+        arenaSize += length;
+        return address;
+    }
+
+    // rewrites the arena once more than half of it belongs to removed or replaced strings
+    private void compactIfSparse() {
+        if (arenaGarbage <= arenaSize / 2 || arenaSize < 4096) {
+            return;
+        }
+        byte[][] old = chunks;
+        chunks = new byte[][]{new byte[(int) Math.min(CHUNK_SIZE, arenaSize - arenaGarbage)]};
+        chunkCount = 1;
+        chunkUsed = 0;
+        arenaSize = 0;
+        arenaGarbage = 0;
+        for (int i = 0; i < size; i++) {
+            if (titleLengths[i] >= 0) {
+                titleAddresses[i] = copy(old, titleAddresses[i], titleLengths[i]);
+            }
+            if (urlLengths[i] >= 0) {
+                urlAddresses[i] = copy(old, urlAddresses[i], urlLengths[i]);
+            }
+        }
+    }
+
+    private long copy(byte[][] from, long address, int length) {
+        return store(from[(int) (address >>> 32)], (int) address, length);
+    }
+
+    private void grow() {
+        int rows = (int) Math.min(capacity, Math.max(INITIAL_ROWS, albumIds.length * 2L));
+        albumIds = Arrays.copyOf(albumIds, rows);
+        photoIds = Arrays.copyOf(photoIds, rows);
+        seconds = Arrays.copyOf(seconds, rows);
+        nanos = Arrays.copyOf(nanos, rows);
+        titleAddresses = Arrays.copyOf(titleAddresses, rows);
+        titleLengths = Arrays.copyOf(titleLengths, rows);
+        urlAddresses = Arrays.copyOf(urlAddresses, rows);
+        urlLengths = Arrays.copyOf(urlLengths, rows);
+    }
+}
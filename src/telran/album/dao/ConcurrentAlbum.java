@@ -0,0 +1,270 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// thread-safe album: photos are striped by albumId over independent IndexedAlbumImpl instances,
+// each guarded by its own read-write lock, so writers to different albums do not contend.
+// The per-album aggregates of IndexedAlbumImpl are read from the album's stripe; title searches and the
+// per-album, per-day and per-month counts are merged stripe by stripe, each stripe read consistently
+public class ConcurrentAlbum implements Album {
+    private static final int MAX_STRIPES = 1 << 16;
+
+    private final Stripe[] stripes;
+    private final int capacity;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ConcurrentAlbum() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public ConcurrentAlbum(int capacity) {
+        this(capacity, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentAlbum(int capacity, int concurrencyLevel) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Illegal concurrency level: " + concurrencyLevel);
+        }
+        this.capacity = capacity;
+        int count = Integer.highestOneBit(Math.min(concurrencyLevel, MAX_STRIPES) - 1) << 1;
+        stripes = new Stripe[Math.max(count, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (photo == null) {
+            return false;
+        }
+        Stripe stripe = stripeFor(photo.getAlbumId());
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            if (stripe.album.getPhotoFromAlbum(photo.getPhotoId(), photo.getAlbumId()) != null || !reserve()) {
+                return false;
+            }
+            stripe.album.addPhoto(photo);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        Stripe stripe = stripeFor(albumId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            if (!stripe.album.removePhoto(photoId, albumId)) {
+                return false;
+            }
+            size.decrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        Stripe stripe = stripeFor(albumId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            return stripe.album.updatePhoto(photoId, albumId, url);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean updateTitle(int photoId, int albumId, String title) {
+        Stripe stripe = stripeFor(albumId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            return stripe.album.updateTitle(photoId, albumId, title);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        Stripe stripe = stripeFor(albumId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return stripe.album.getPhotoFromAlbum(photoId, albumId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        Stripe stripe = stripeFor(albumId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return stripe.album.getAllPhotoFromAlbum(albumId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // each stripe is read consistently, but stripes are visited one after another
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return concat(album -> album.getPhotoBetweenDate(dateFrom, dateTo));
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        Stripe stripe = stripeFor(albumId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return stripe.album.getLatestPhotos(albumId, n);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the latest n of every stripe, merged
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        Photo[][] parts = new Photo[stripes.length][];
+        for (int i = 0; i < stripes.length; i++) {
+            Lock lock = stripes[i].lock.readLock();
+            lock.lock();
+            try {
+                parts[i] = stripes[i].album.getLatestPhotos(n);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return LatestPhotos.select(Arrays.stream(parts).flatMap(Arrays::stream), n);
+    }
+
+    // photos whose title contains every word of the query, from every stripe
+    public Photo[] searchByTitle(String query) {
+        return concat(album -> album.searchByTitle(query));
+    }
+
+    public Photo[] searchByTitlePrefix(String prefix) {
+        return concat(album -> album.searchByTitlePrefix(prefix));
+    }
+
+    public int countPhotosInAlbum(int albumId) {
+        return read(stripeFor(albumId), album -> album.countPhotosInAlbum(albumId));
+    }
+
+    // albums never span stripes, so the stripes' maps are disjoint
+    public Map<Integer, Integer> countPhotosPerAlbum() {
+        Map<Integer, Integer> res = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            res.putAll(read(stripe, IndexedAlbumImpl::countPhotosPerAlbum));
+        }
+        return res;
+    }
+
+    public LocalDateTime getFirstDate(int albumId) {
+        return read(stripeFor(albumId), album -> album.getFirstDate(albumId));
+    }
+
+    public LocalDateTime getLastDate(int albumId) {
+        return read(stripeFor(albumId), album -> album.getLastDate(albumId));
+    }
+
+    // a day's photos may be in any stripe, so the counts are summed
+    public NavigableMap<LocalDate, Integer> countPhotosPerDay(LocalDate dateFrom, LocalDate dateTo) {
+        NavigableMap<LocalDate, Integer> res = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            read(stripe, album -> album.countPhotosPerDay(dateFrom, dateTo)).forEach((day, count) ->
+                    res.merge(day, count, Integer::sum));
+        }
+        return res;
+    }
+
+    public NavigableMap<YearMonth, Integer> countPhotosPerMonth(YearMonth monthFrom, YearMonth monthTo) {
+        NavigableMap<YearMonth, Integer> res = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            read(stripe, album -> album.countPhotosPerMonth(monthFrom, monthTo)).forEach((month, count) ->
+                    res.merge(month, count, Integer::sum));
+        }
+        return res;
+    }
+
+    // the query's results from every stripe, read one after another
+    private Photo[] concat(Function<IndexedAlbumImpl, Photo[]> query) {
+        Photo[][] parts = new Photo[stripes.length][];
+        int total = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            parts[i] = read(stripes[i], query);
+            total += parts[i].length;
+        }
+        Photo[] res = new Photo[total];
+        int j = 0;
+        for (Photo[] part : parts) {
+            System.arraycopy(part, 0, res, j, part.length);
+            j += part.length;
+        }
+        return res;
+    }
+
+    private static <T> T read(Stripe stripe, Function<IndexedAlbumImpl, T> query) {
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return query.apply(stripe.album);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = size.get();
+            if (current == capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private Stripe stripeFor(int albumId) {
+        int h = albumId * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static class Stripe {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final IndexedAlbumImpl album = new IndexedAlbumImpl();
+    }
+}
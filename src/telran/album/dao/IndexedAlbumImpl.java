@@ -0,0 +1,300 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+public class IndexedAlbumImpl implements Album, ScanStatistics {
+    private final PhotoSegments photos = new PhotoSegments();
+    private final int capacity;
+    // primary index (albumId, photoId) -> slot in photos, the same key Photo.equals/hashCode use;
+    // unboxed and with a mixed hash, since Long.hashCode of the packed key is just albumId ^ photoId
+    private final LongIntHashMap index = new LongIntHashMap();
+    // secondary index albumId -> photos of that album ordered by photoId
+    private final Map<Integer, NavigableMap<Integer, Photo>> albums;
+    // all photos ordered by date, ties broken by (albumId, photoId)
+    private final NavigableSet<Photo> dates;
+    private final TitleIndex titles = new TitleIndex();
+    // per-album and per-period aggregates, maintained on every change so queries never scan the photos
+    private final PhotoStatistics statistics = new PhotoStatistics();
+    // range queries visit only the photos they return
+    private final ScanCounter scans = new ScanCounter();
+
+    public IndexedAlbumImpl() {
+        this(Integer.MAX_VALUE);
+    }
+
+    // capacity is a hard cap only; storage grows with the number of photos actually added
+    public IndexedAlbumImpl(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        albums = new HashMap<>();
+        dates = new TreeSet<>(DATE_ORDER);
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (photo == null || photos.size() == capacity
+                || index.putIfAbsent(key(photo.getAlbumId(), photo.getPhotoId()), photos.size())
+                != LongIntHashMap.MISSING) {
+            return false;
+        }
+        photos.add(photo);
+        albums.computeIfAbsent(photo.getAlbumId(), k -> new TreeMap<>()).put(photo.getPhotoId(), photo);
+        dates.add(photo);
+        statistics.add(photo);
+        titles.add(photo, photo.getTitle());
+        return true;
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        int slot = index.remove(key(albumId, photoId));
+        if (slot == LongIntHashMap.MISSING) {
+            return false;
+        }
+        Photo photo = removeSlot(slot);
+        NavigableMap<Integer, Photo> album = albums.get(albumId);
+        album.remove(photoId);
+        if (album.isEmpty()) {
+            albums.remove(albumId);
+        }
+        unindex(photo);
+        return true;
+    }
+
+    public int removeAllPhotoFromAlbum(int albumId) {
+        NavigableMap<Integer, Photo> album = albums.remove(albumId);
+        if (album == null) {
+            return 0;
+        }
+        for (Photo photo : album.values()) {
+            removeSlot(index.remove(key(albumId, photo.getPhotoId())));
+            unindex(photo);
+        }
+        return album.size();
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        int slot = index.get(key(albumId, photoId));
+        if (slot == LongIntHashMap.MISSING) {
+            return false;
+        }
+        Photo photo = photos.get(slot);
+        replace(slot, photo, photo.withUrl(url));
+        return true;
+    }
+
+    // the stored photo is replaced by a copy with the new title, which the title index follows
+    public boolean updateTitle(int photoId, int albumId, String title) {
+        int slot = index.get(key(albumId, photoId));
+        if (slot == LongIntHashMap.MISSING) {
+            return false;
+        }
+        Photo photo = photos.get(slot);
+        replace(slot, photo, photo.withTitle(title));
+        return true;
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        int slot = index.get(key(albumId, photoId));
+        return slot == LongIntHashMap.MISSING ? null : photos.get(slot);
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        NavigableMap<Integer, Photo> album = albums.get(albumId);
+        Photo[] res = album == null ? new Photo[0] : album.values().toArray(new Photo[0]);
+        scans.add(res.length);
+        return res;
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        Photo[] res = dateRange(dateFrom, dateTo, null).toArray(new Photo[0]);
+        scans.add(res.length);
+        return res;
+    }
+
+    @Override
+    public int size() {
+        return photos.size();
+    }
+
+    @Override
+    public void setScanCounting(boolean enabled) {
+        scans.setEnabled(enabled);
+    }
+
+    @Override
+    public long elementsScanned() {
+        return scans.sum();
+    }
+
+    public int countPhotosInAlbum(int albumId) {
+        NavigableMap<Integer, Photo> album = albums.get(albumId);
+        return album == null ? 0 : album.size();
+    }
+
+    // albumId -> number of its photos, one entry per album
+    public Map<Integer, Integer> countPhotosPerAlbum() {
+        Map<Integer, Integer> res = new HashMap<>();
+        albums.forEach((albumId, album) -> res.put(albumId, album.size()));
+        return res;
+    }
+
+    // date of the album's earliest dated photo, null if it has none
+    public LocalDateTime getFirstDate(int albumId) {
+        return statistics.firstDate(albumId);
+    }
+
+    // date of the album's latest photo, null if it has no dated photo
+    public LocalDateTime getLastDate(int albumId) {
+        return statistics.lastDate(albumId);
+    }
+
+    // day -> number of photos taken that day, for the days between the bounds inclusive that have photos
+    public NavigableMap<LocalDate, Integer> countPhotosPerDay(LocalDate dateFrom, LocalDate dateTo) {
+        return statistics.perDay(dateFrom, dateTo);
+    }
+
+    // month -> number of photos taken that month, for the months between the bounds inclusive that have photos
+    public NavigableMap<YearMonth, Integer> countPhotosPerMonth(YearMonth monthFrom, YearMonth monthTo) {
+        return statistics.perMonth(monthFrom, monthTo);
+    }
+
+    // photos whose title contains every word of the query, ignoring case
+    public Photo[] searchByTitle(String query) {
+        return titles.search(query);
+    }
+
+    // photos with a title word starting with the prefix, ignoring case
+    public Photo[] searchByTitlePrefix(String prefix) {
+        return titles.searchPrefix(prefix);
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId) {
+        NavigableMap<Integer, Photo> album = albums.get(albumId);
+        return album == null ? Stream.empty() : album.values().stream();
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId, int afterPhotoId) {
+        NavigableMap<Integer, Photo> album = albums.get(albumId);
+        return album == null ? Stream.empty() : album.tailMap(afterPhotoId, false).values().stream();
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return dateRange(dateFrom, dateTo, null).stream();
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo, Photo after) {
+        return dateRange(dateFrom, dateTo, after).stream();
+    }
+
+    // walks the date index from its newest end, so only the photos returned are visited
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        return latest(dates, n);
+    }
+
+    // walks the album's own date set from its newest end
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        return latest(statistics.albumDates(albumId), n);
+    }
+
+    // every photo in DATE_ORDER, including those without a date
+    Photo[] photosByDate() {
+        return dates.toArray(new Photo[0]);
+    }
+
+    // sizes the primary index for the given number of photos before a load from an AlbumSnapshot
+    void ensureCapacity(int expectedSize) {
+        index.ensureCapacity(Math.min(expectedSize, capacity));
+    }
+
+    // the newest n dated photos of a set in DATE_ORDER, newest first
+    private Photo[] latest(NavigableSet<Photo> byDate, int n) {
+        LatestPhotos.checkCount(n);
+        Photo[] res = new Photo[Math.min(n, byDate.size())];
+        Iterator<Photo> newest = byDate.descendingIterator();
+        int j = 0;
+        while (j < res.length && newest.hasNext()) {
+            Photo photo = newest.next();
+            if (photo.getDate() == null) {
+                break;
+            }
+            res[j++] = photo;
+        }
+        scans.add(j);
+        return j == res.length ? res : Arrays.copyOf(res, j);
+    }
+
+    // view of the date index between the day bounds, starting past after when it is given
+    private NavigableSet<Photo> dateRange(LocalDate dateFrom, LocalDate dateTo, Photo after) {
+        Photo from = new Photo(Integer.MIN_VALUE, Integer.MIN_VALUE, null, null, dateFrom.atStartOfDay());
+        Photo to = new Photo(Integer.MAX_VALUE, Integer.MAX_VALUE, null, null, dateTo.atTime(LocalTime.MAX));
+        boolean fromInclusive = true;
+        if (after != null && DATE_ORDER.compare(after, from) >= 0) {
+            from = after;
+            fromInclusive = false;
+        }
+        if (DATE_ORDER.compare(from, to) > 0) {
+            return Collections.emptyNavigableSet();
+        }
+        return dates.subSet(from, fromInclusive, to, true);
+    }
+
+    // the copy takes the place of the old instance in every index
+    private void replace(int slot, Photo photo, Photo updated) {
+        photos.set(slot, updated);
+        albums.get(photo.getAlbumId()).put(photo.getPhotoId(), updated);
+        dates.remove(photo);
+        dates.add(updated);
+        statistics.replace(photo, updated);
+        titles.remove(photo, photo.getTitle());
+        titles.add(updated, updated.getTitle());
+    }
+
+    private void unindex(Photo photo) {
+        dates.remove(photo);
+        statistics.remove(photo);
+        titles.remove(photo, photo.getTitle());
+    }
+
+    // fills the hole with the last photo instead of shifting; Album promises no order
+    private Photo removeSlot(int slot) {
+        Photo removed = photos.get(slot);
+        Photo last = photos.removeLast();
+        if (slot < photos.size()) {
+            photos.set(slot, last);
+            index.put(key(last.getAlbumId(), last.getPhotoId()), slot);
+        }
+        return removed;
+    }
+
+    static long key(int albumId, int photoId) {
+        return (long) albumId << 32 | (photoId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,44 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+// top-n selection for getLatestPhotos: a min-heap of at most n photos in DATE_ORDER whose head is
+// the oldest photo kept, so the whole input is seen once at O(log n) per photo
+class LatestPhotos {
+    private LatestPhotos() {
+    }
+
+    static void checkCount(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Illegal count: " + n);
+        }
+    }
+
+    // the n latest dated photos of the stream, newest first
+    static Photo[] select(Stream<Photo> photos, int n) {
+        checkCount(n);
+        if (n == 0) {
+            return new Photo[0];
+        }
+        PriorityQueue<Photo> heap = new PriorityQueue<>(Math.min(n, 1024), Album.DATE_ORDER);
+        photos.forEach(photo -> {
+            if (photo.getDate() == null) {
+                return;
+            }
+            if (heap.size() < n) {
+                heap.add(photo);
+            } else if (Album.DATE_ORDER.compare(photo, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(photo);
+            }
+        });
+        Photo[] res = new Photo[heap.size()];
+        for (int i = res.length - 1; i >= 0; i--) {
+            res[i] = heap.poll();
+        }
+        return res;
+    }
+}
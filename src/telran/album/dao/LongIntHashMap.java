@@ -0,0 +1,131 @@
+package telran.album.dao;
+
+import java.util.Arrays;
+
+// open-addressing long -> int map with linear probing and no boxing; values must be non-negative,
+// -1 is returned for a missing key
+class LongIntHashMap {
+    static final int MISSING = -1;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    // a key equal to the EMPTY marker is kept aside
+    private int emptyKeyValue = MISSING;
+
+    LongIntHashMap() {
+        keys = new long[16];
+        Arrays.fill(keys, EMPTY);
+        values = new int[16];
+    }
+
+    // grows the table once so that the given number of keys fit without further rehashing
+    void ensureCapacity(int expectedSize) {
+        long required = (long) expectedSize * 4 / 3 + 1;
+        if (required > keys.length) {
+            rehash((int) Math.min(1 << 30, Long.highestOneBit(required - 1) << 1));
+        }
+    }
+
+    int size() {
+        return size + (emptyKeyValue == MISSING ? 0 : 1);
+    }
+
+    int get(long key) {
+        if (key == EMPTY) {
+            return emptyKeyValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return MISSING;
+    }
+
+    // stores the value and returns the previous one, or MISSING
+    int put(long key, int value) {
+        if (key == EMPTY) {
+            int previous = emptyKeyValue;
+            emptyKeyValue = value;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > keys.length * 3 / 4) {
+            rehash(keys.length * 2);
+        }
+        return MISSING;
+    }
+
+    int putIfAbsent(long key, int value) {
+        int previous = get(key);
+        return previous != MISSING ? previous : put(key, value);
+    }
+
+    int remove(long key) {
+        if (key == EMPTY) {
+            int previous = emptyKeyValue;
+            emptyKeyValue = MISSING;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                shiftBack(i, mask);
+                size--;
+                return previous;
+            }
+        }
+        return MISSING;
+    }
+
+    // backward-shift deletion keeps probe chains intact without tombstones
+    private void shiftBack(int hole, int mask) {
+        for (int i = (hole + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = slot(keys[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
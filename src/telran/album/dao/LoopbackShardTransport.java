@@ -0,0 +1,48 @@
+package telran.album.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+
+// in-process stand-in for a cluster: every shard is an Album served by its own thread, so requests to one
+// shard run one at a time, like on a node, and the backing albums need not be thread-safe
+public class LoopbackShardTransport implements ShardTransport {
+    private final Album[] albums;
+    private final ExecutorService[] executors;
+
+    public LoopbackShardTransport(int shards, IntFunction<Album> albumFactory) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Illegal shard count: " + shards);
+        }
+        albums = new Album[shards];
+        executors = new ExecutorService[shards];
+        for (int i = 0; i < shards; i++) {
+            albums[i] = albumFactory.apply(i);
+            int shard = i;
+            executors[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "album-shard-" + shard);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public int shardCount() {
+        return albums.length;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> send(int shard, Request<T> request) {
+        Album album = albums[shard];
+        return CompletableFuture.supplyAsync(() -> request.apply(album), executors[shard]);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class LruPhotoCache implements PhotoCache {
+    private final int maximumSize;
+    private final LinkedHashMap<Long, Photo> entries;
+    private boolean evicted;
+
+    LruPhotoCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Photo> eldest) {
+                return evicted = size() > LruPhotoCache.this.maximumSize;
+            }
+        };
+    }
+
+    @Override
+    public Photo get(long key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public boolean put(long key, Photo photo) {
+        evicted = false;
+        entries.put(key, photo);
+        return evicted;
+    }
+
+    @Override
+    public void invalidate(long key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+}
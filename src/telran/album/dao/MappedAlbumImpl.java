@@ -0,0 +1,354 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+Persistent album kept in two memory-mapped files inside a directory:
+
+photos.dat  - 64 byte header (magic, version, record count) followed by fixed-width 48 byte records:
+              albumId int, photoId int, epoch second long, nano int (-1 for a null date), unused int,
+              title offset long, title length int, url length int, url offset long
+strings.dat - 8 byte header (bytes used) followed by the UTF-8 bytes of titles and urls; length -1 is null
+
+Only the (albumId, photoId) -> record index lives on the heap and it is rebuilt by one sequential pass
+over the records on open. Each file is a single MappedByteBuffer, so it is limited to 2 GB
+(about 44M records). Strings of removed or updated photos are left in place until they are more than
+half of strings.dat; the live strings are then moved down over them in offset order, the records are
+pointed at the new offsets and both files are forced. A crash during that pass can lose strings.
+ */
+public class MappedAlbumImpl implements Album, ScanStatistics, Closeable {
+    private static final int MAGIC = 0x414C424D; // "ALBM"
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;
+    private static final int COUNT_OFFSET = 8;
+    private static final int RECORD = 48;
+    private static final int STRINGS_HEADER = 8;
+    private static final int INITIAL_RECORDS = 1024;
+    private static final long MAX_MAPPING = Integer.MAX_VALUE;
+
+    private final int capacity;
+    private final FileChannel photosChannel;
+    private final FileChannel stringsChannel;
+    private MappedByteBuffer records;
+    private MappedByteBuffer strings;
+    private int size;
+    private int stringsSize;
+    // bytes in strings.dat that belong to removed or replaced strings
+    private long stringsGarbage;
+    private final ScanCounter scans = new ScanCounter();
+    private final LongIntHashMap index = new LongIntHashMap();
+
+    public MappedAlbumImpl(Path directory) throws IOException {
+        this(directory, Integer.MAX_VALUE);
+    }
+
+    public MappedAlbumImpl(Path directory, int capacity) throws IOException {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        Files.createDirectories(directory);
+        photosChannel = FileChannel.open(directory.resolve("photos.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        stringsChannel = FileChannel.open(directory.resolve("strings.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = photosChannel.size() == 0;
+            records = photosChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(photosChannel.size(), HEADER + (long) RECORD * INITIAL_RECORDS));
+            strings = stringsChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(stringsChannel.size(), STRINGS_HEADER + 64L * INITIAL_RECORDS));
+            if (created) {
+                records.putInt(0, MAGIC);
+                records.putInt(4, VERSION);
+                records.putInt(COUNT_OFFSET, 0);
+                strings.putLong(0, STRINGS_HEADER);
+            } else if (records.getInt(0) != MAGIC || records.getInt(4) != VERSION) {
+                throw new IOException("Not an album file: " + directory.resolve("photos.dat"));
+            }
+            size = records.getInt(COUNT_OFFSET);
+            stringsSize = (int) strings.getLong(0);
+            long live = 0;
+            for (int row = 0; row < size; row++) {
+                int position = HEADER + row * RECORD;
+                index.put(IndexedAlbumImpl.key(records.getInt(position), records.getInt(position + 4)), row);
+                live += Math.max(records.getInt(position + 32), 0) + Math.max(records.getInt(position + 36), 0);
+            }
+            stringsGarbage = stringsSize - STRINGS_HEADER - live;
+            compactIfSparse();
+        } catch (IOException | RuntimeException e) {
+            photosChannel.close();
+            stringsChannel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (photo == null || size == capacity) {
+            return false;
+        }
+        long key = IndexedAlbumImpl.key(photo.getAlbumId(), photo.getPhotoId());
+        if (index.get(key) != LongIntHashMap.MISSING) {
+            return false;
+        }
+        ensureRecordCapacity(size + 1);
+        int position = HEADER + size * RECORD;
+        records.putInt(position, photo.getAlbumId());
+        records.putInt(position + 4, photo.getPhotoId());
+        LocalDateTime date = photo.getDate();
+        records.putLong(position + 8, date == null ? 0 : date.toEpochSecond(ZoneOffset.UTC));
+        records.putInt(position + 16, date == null ? -1 : date.getNano());
+        writeString(position + 24, position + 32, photo.getTitle());
+        writeString(position + 40, position + 36, photo.getUrl());
+        index.put(key, size);
+        records.putInt(COUNT_OFFSET, ++size);
+        return true;
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        int row = index.remove(IndexedAlbumImpl.key(albumId, photoId));
+        if (row == LongIntHashMap.MISSING) {
+            return false;
+        }
+        int position = HEADER + row * RECORD;
+        stringsGarbage += Math.max(records.getInt(position + 32), 0) + Math.max(records.getInt(position + 36), 0);
+        int last = size - 1;
+        if (row < last) {
+            int from = HEADER + last * RECORD;
+            records.put(HEADER + row * RECORD, records, from, RECORD);
+            index.put(IndexedAlbumImpl.key(records.getInt(from), records.getInt(from + 4)), row);
+        }
+        records.putInt(COUNT_OFFSET, size = last);
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        int row = index.get(IndexedAlbumImpl.key(albumId, photoId));
+        if (row == LongIntHashMap.MISSING) {
+            return false;
+        }
+        int position = HEADER + row * RECORD;
+        int oldLength = records.getInt(position + 36);
+        writeString(position + 40, position + 36, url);
+        stringsGarbage += Math.max(oldLength, 0);
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        int row = index.get(IndexedAlbumImpl.key(albumId, photoId));
+        return row == LongIntHashMap.MISSING ? null : materialize(row);
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        scans.add(size);
+        int[] rows = new int[16];
+        int j = 0;
+        for (int row = 0; row < size; row++) {
+            if (records.getInt(HEADER + row * RECORD) == albumId) {
+                if (j == rows.length) {
+                    rows = Arrays.copyOf(rows, j * 2);
+                }
+                rows[j++] = row;
+            }
+        }
+        return materialize(rows, j);
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        long from = dateFrom.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = dateTo.atTime(LocalTime.MAX).toEpochSecond(ZoneOffset.UTC);
+        scans.add(size);
+        int[] rows = new int[16];
+        int j = 0;
+        for (int row = 0; row < size; row++) {
+            if (inRange(HEADER + row * RECORD, from, to)) {
+                if (j == rows.length) {
+                    rows = Arrays.copyOf(rows, j * 2);
+                }
+                rows[j++] = row;
+            }
+        }
+        return materialize(rows, j);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void setScanCounting(boolean enabled) {
+        scans.setEnabled(enabled);
+    }
+
+    @Override
+    public long elementsScanned() {
+        return scans.sum();
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId) {
+        return IntStream.range(0, size)
+                .filter(i -> records.getInt(HEADER + i * RECORD) == albumId)
+                .mapToObj(this::materialize);
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        long from = dateFrom.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = dateTo.atTime(LocalTime.MAX).toEpochSecond(ZoneOffset.UTC);
+        return IntStream.range(0, size)
+                .filter(i -> inRange(HEADER + i * RECORD, from, to))
+                .mapToObj(this::materialize);
+    }
+
+    // flushes both mappings to the storage device
+    public void force() {
+        records.force();
+        strings.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        photosChannel.close();
+        stringsChannel.close();
+    }
+
+    private boolean inRange(int position, long from, long to) {
+        long seconds = records.getLong(position + 8);
+        return seconds >= from && seconds <= to && records.getInt(position + 16) >= 0;
+    }
+
+    private Photo[] materialize(int[] rows, int count) {
+        Photo[] res = new Photo[count];
+        for (int i = 0; i < count; i++) {
+            res[i] = materialize(rows[i]);
+        }
+        return res;
+    }
+
+    private Photo materialize(int row) {
+        int position = HEADER + row * RECORD;
+        int nano = records.getInt(position + 16);
+        LocalDateTime date = nano < 0 ? null
+                : LocalDateTime.ofEpochSecond(records.getLong(position + 8), nano, ZoneOffset.UTC);
+        return new Photo(records.getInt(position), records.getInt(position + 4),
+                readString(position + 24, position + 32), readString(position + 40, position + 36), date);
+    }
+
+    private String readString(int offsetPosition, int lengthPosition) {
+        int length = records.getInt(lengthPosition);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.get((int) records.getLong(offsetPosition), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeString(int offsetPosition, int lengthPosition, String value) {
+        if (value == null) {
+            records.putLong(offsetPosition, 0);
+            records.putInt(lengthPosition, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureStringCapacity((long) stringsSize + bytes.length);
+        strings.put(stringsSize, bytes);
+        records.putLong(offsetPosition, stringsSize);
+        records.putInt(lengthPosition, bytes.length);
+        stringsSize += bytes.length;
+        strings.putLong(0, stringsSize);
+    }
+
+    // moves the live strings down over the garbage once it is more than half of the strings file
+    private void compactIfSparse() {
+        long used = stringsSize - STRINGS_HEADER;
+        if (stringsGarbage <= used / 2 || used < 4096) {
+            return;
+        }
+        // offset in the high half, record position of the offset field in the low half, sorted by offset
+        long[] order = new long[2 * size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int position = HEADER + row * RECORD;
+            if (records.getInt(position + 32) >= 0) {
+                order[count++] = records.getLong(position + 24) << 32 | (position + 24);
+            }
+            if (records.getInt(position + 36) >= 0) {
+                order[count++] = records.getLong(position + 40) << 32 | (position + 40);
+            }
+        }
+        Arrays.sort(order, 0, count);
+        int target = STRINGS_HEADER;
+        for (int i = 0; i < count; i++) {
+            int offset = (int) (order[i] >>> 32);
+            int offsetPosition = (int) order[i];
+            // the title length follows its offset, the url length precedes its offset
+            boolean title = (offsetPosition - HEADER) % RECORD == 24;
+            int length = records.getInt(title ? offsetPosition + 8 : offsetPosition - 4);
+            // the target never passes the source, so only garbage and the string itself are overwritten
+            strings.put(target, strings, offset, length);
+            records.putLong(offsetPosition, target);
+            target += length;
+        }
+        stringsSize = target;
+        stringsGarbage = 0;
+        strings.putLong(0, stringsSize);
+        force();
+    }
+
+    private void ensureRecordCapacity(int rows) {
+        long required = HEADER + (long) RECORD * rows;
+        if (required > records.capacity()) {
+            records = remap(photosChannel, records.capacity(), required);
+        }
+    }
+
+    private void ensureStringCapacity(long required) {
+        if (required > strings.capacity()) {
+            strings = remap(stringsChannel, strings.capacity(), required);
+        }
+    }
+
+    private static MappedByteBuffer remap(FileChannel channel, long current, long required) {
+        if (required > MAX_MAPPING) {
+            throw new IllegalStateException("Album file is full");
+        }
+        try {
+            long length = Math.min(MAX_MAPPING, Math.max(required, current * 2));
+            // extend the file by writing its last byte, then map the new length
+            channel.write(ByteBuffer.allocate(1), length - 1);
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package telran.album.dao;
+
+import telran.album.metrics.AlbumMetrics;
+import telran.album.metrics.Operation;
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+// records latency, result size and, when the album reports it, the number of photos visited by every call;
+// while the metrics are disabled each call costs one volatile read on top of the delegation, and the album
+// is told to stop counting scans so it does not pay for them either.
+// Streams are passed through unmeasured since their work happens after the call returns.
+public class MeteredAlbum implements Album {
+    private final Album album;
+    private final AlbumMetrics metrics;
+    private final ScanStatistics scans;
+    // whether the album counts scans, following metrics.isEnabled() from one query to the next
+    private volatile boolean counting;
+
+    public MeteredAlbum(Album album) {
+        this(album, new AlbumMetrics());
+    }
+
+    public MeteredAlbum(Album album, AlbumMetrics metrics) {
+        this.album = album;
+        this.metrics = metrics;
+        scans = album instanceof ScanStatistics statistics ? statistics : null;
+    }
+
+    public AlbumMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (!metrics.isEnabled()) {
+            return album.addPhoto(photo);
+        }
+        long start = System.nanoTime();
+        boolean res = album.addPhoto(photo);
+        metrics.record(Operation.addPhoto, System.nanoTime() - start, -1, -1);
+        return res;
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        if (!metrics.isEnabled()) {
+            return album.removePhoto(photoId, albumId);
+        }
+        long start = System.nanoTime();
+        boolean res = album.removePhoto(photoId, albumId);
+        metrics.record(Operation.removePhoto, System.nanoTime() - start, -1, -1);
+        return res;
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        if (!metrics.isEnabled()) {
+            return album.updatePhoto(photoId, albumId, url);
+        }
+        long start = System.nanoTime();
+        boolean res = album.updatePhoto(photoId, albumId, url);
+        metrics.record(Operation.updatePhoto, System.nanoTime() - start, -1, -1);
+        return res;
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        if (!metrics.isEnabled()) {
+            countScans(false);
+            return album.getPhotoFromAlbum(photoId, albumId);
+        }
+        countScans(true);
+        long scanned = scanned();
+        long start = System.nanoTime();
+        Photo res = album.getPhotoFromAlbum(photoId, albumId);
+        long nanos = System.nanoTime() - start;
+        metrics.record(Operation.getPhotoFromAlbum, nanos, res == null ? 0 : 1, scanned() - scanned);
+        return res;
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        if (!metrics.isEnabled()) {
+            countScans(false);
+            return album.getAllPhotoFromAlbum(albumId);
+        }
+        countScans(true);
+        long scanned = scanned();
+        long start = System.nanoTime();
+        Photo[] res = album.getAllPhotoFromAlbum(albumId);
+        long nanos = System.nanoTime() - start;
+        metrics.record(Operation.getAllPhotoFromAlbum, nanos, res.length, scanned() - scanned);
+        return res;
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        if (!metrics.isEnabled()) {
+            countScans(false);
+            return album.getPhotoBetweenDate(dateFrom, dateTo);
+        }
+        countScans(true);
+        long scanned = scanned();
+        long start = System.nanoTime();
+        Photo[] res = album.getPhotoBetweenDate(dateFrom, dateTo);
+        long nanos = System.nanoTime() - start;
+        metrics.record(Operation.getPhotoBetweenDate, nanos, res.length, scanned() - scanned);
+        return res;
+    }
+
+    @Override
+    public int size() {
+        return album.size();
+    }
+
+    // both overloads are recorded as getLatestPhotos
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        if (!metrics.isEnabled()) {
+            countScans(false);
+            return album.getLatestPhotos(albumId, n);
+        }
+        countScans(true);
+        long scanned = scanned();
+        long start = System.nanoTime();
+        Photo[] res = album.getLatestPhotos(albumId, n);
+        long nanos = System.nanoTime() - start;
+        metrics.record(Operation.getLatestPhotos, nanos, res.length, scanned() - scanned);
+        return res;
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        if (!metrics.isEnabled()) {
+            countScans(false);
+            return album.getLatestPhotos(n);
+        }
+        countScans(true);
+        long scanned = scanned();
+        long start = System.nanoTime();
+        Photo[] res = album.getLatestPhotos(n);
+        long nanos = System.nanoTime() - start;
+        metrics.record(Operation.getLatestPhotos, nanos, res.length, scanned() - scanned);
+        return res;
+    }
+
+    // batches record the number of photos they changed as their result size
+    @Override
+    public int addPhotos(Photo[] photos) {
+        if (!metrics.isEnabled()) {
+            return album.addPhotos(photos);
+        }
+        long start = System.nanoTime();
+        int res = album.addPhotos(photos);
+        metrics.record(Operation.addPhotos, System.nanoTime() - start, res, -1);
+        return res;
+    }
+
+    @Override
+    public int removePhotos(Photo[] photos) {
+        if (!metrics.isEnabled()) {
+            return album.removePhotos(photos);
+        }
+        long start = System.nanoTime();
+        int res = album.removePhotos(photos);
+        metrics.record(Operation.removePhotos, System.nanoTime() - start, res, -1);
+        return res;
+    }
+
+    @Override
+    public int updatePhotos(Photo[] photos) {
+        if (!metrics.isEnabled()) {
+            return album.updatePhotos(photos);
+        }
+        long start = System.nanoTime();
+        int res = album.updatePhotos(photos);
+        metrics.record(Operation.updatePhotos, System.nanoTime() - start, res, -1);
+        return res;
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId) {
+        return album.streamAllPhotoFromAlbum(albumId);
+    }
+
+    @Override
+    public Stream<Photo> streamAllPhotoFromAlbum(int albumId, int afterPhotoId) {
+        return album.streamAllPhotoFromAlbum(albumId, afterPhotoId);
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return album.streamPhotoBetweenDate(dateFrom, dateTo);
+    }
+
+    @Override
+    public Stream<Photo> streamPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo, Photo after) {
+        return album.streamPhotoBetweenDate(dateFrom, dateTo, after);
+    }
+
+    // the lock is taken only when the metrics have been switched since the last query
+    private void countScans(boolean enabled) {
+        if (scans != null && counting != enabled) {
+            synchronized (this) {
+                if (counting != enabled) {
+                    scans.setScanCounting(enabled);
+                    counting = enabled;
+                }
+            }
+        }
+    }
+
+    private long scanned() {
+        return scans == null ? 0 : scans.elementsScanned();
+    }
+}
@@ -0,0 +1,406 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+Thread-safe album with snapshot-isolated reads. The whole state is an immutable Version published
+through a volatile field: readers take the current Version once and query it without locks, so a
+query never sees a write half-done and never blocks or is blocked by writers.
+
+Photos are hashed by (albumId, photoId) over shards; a shard holds its photos in two sorted arrays,
+by (albumId, photoId) and in DATE_ORDER. Writers are serialized and copy only the shard they change plus
+the shard directory, so a write costs O(size / shards + shards) and old Versions stay valid for as long
+as a reader holds them. The shard count doubles, every shard splitting in two, whenever the average
+shard grows past twice the shard count, which keeps both terms near sqrt(size); range queries pay a
+binary search per shard for it. Shards are not merged again when photos are removed.
+
+updatePhoto stores a copy of the photo with the new url, so photos already returned to readers, and
+older snapshots, keep their url.
+ */
+public class MvccAlbum implements Album {
+    private static final int MAX_SHARDS = 1 << 16;
+    private static final int INITIAL_SHARDS = 16;
+    private static final Comparator<Photo> ID_ORDER = (p1, p2) -> {
+        int res = Integer.compare(p1.getAlbumId(), p2.getAlbumId());
+        return res != 0 ? res : Integer.compare(p1.getPhotoId(), p2.getPhotoId());
+    };
+
+    private final int capacity;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Version version;
+
+    public MvccAlbum() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public MvccAlbum(int capacity) {
+        this(capacity, INITIAL_SHARDS);
+    }
+
+    // shards is the initial shard count, rounded up to a power of two
+    public MvccAlbum(int capacity, int shards) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Illegal shard count: " + shards);
+        }
+        this.capacity = capacity;
+        int count = Math.max(Integer.highestOneBit(Math.min(shards, MAX_SHARDS) - 1) << 1, 1);
+        Shard[] empty = new Shard[count];
+        Arrays.fill(empty, Shard.EMPTY);
+        version = new Version(empty, 0);
+    }
+
+    // read-only view of the album as of now; it does not change when the album does
+    public Album snapshot() {
+        return version;
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (photo == null) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Version current = version;
+            int i = current.shardFor(photo.getAlbumId(), photo.getPhotoId());
+            int position = current.shards[i].indexOf(photo.getAlbumId(), photo.getPhotoId());
+            if (current.size == capacity || position >= 0) {
+                return false;
+            }
+            version = current.with(i, current.shards[i].insert(-position - 1, photo), current.size + 1).grown();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // publishes the whole batch as one version, each changed shard copied once
+    @Override
+    public int addPhotos(Photo[] photos) {
+        writeLock.lock();
+        try {
+            Version current = version;
+            List<List<Photo>> added = new ArrayList<>();
+            for (int i = 0; i < current.shards.length; i++) {
+                added.add(null);
+            }
+            Set<Photo> batch = new HashSet<>();
+            int count = 0;
+            for (Photo photo : photos) {
+                if (photo == null || current.size + count == capacity) {
+                    continue;
+                }
+                int i = current.shardFor(photo.getAlbumId(), photo.getPhotoId());
+                if (current.shards[i].indexOf(photo.getAlbumId(), photo.getPhotoId()) < 0 && batch.add(photo)) {
+                    if (added.get(i) == null) {
+                        added.set(i, new ArrayList<>());
+                    }
+                    added.get(i).add(photo);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                Shard[] shards = current.shards.clone();
+                for (int i = 0; i < shards.length; i++) {
+                    if (added.get(i) != null) {
+                        shards[i] = shards[i].insertAll(added.get(i).toArray(new Photo[0]));
+                    }
+                }
+                version = new Version(shards, current.size + count).grown();
+            }
+            return count;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        writeLock.lock();
+        try {
+            Version current = version;
+            int i = current.shardFor(albumId, photoId);
+            int position = current.shards[i].indexOf(albumId, photoId);
+            if (position < 0) {
+                return false;
+            }
+            version = current.with(i, current.shards[i].remove(position), current.size - 1);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        writeLock.lock();
+        try {
+            Version current = version;
+            int i = current.shardFor(albumId, photoId);
+            int position = current.shards[i].indexOf(albumId, photoId);
+            if (position < 0) {
+                return false;
+            }
+            Photo photo = current.shards[i].byId[position];
+            Photo updated = photo.withUrl(url);
+            version = current.with(i, current.shards[i].replace(position, updated), current.size);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        return version.getPhotoFromAlbum(photoId, albumId);
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        return version.getAllPhotoFromAlbum(albumId);
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return version.getPhotoBetweenDate(dateFrom, dateTo);
+    }
+
+    @Override
+    public int size() {
+        return version.size;
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        return version.getLatestPhotos(n);
+    }
+
+    private static int hash(int albumId, int photoId) {
+        long h = IndexedAlbumImpl.key(albumId, photoId) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    // one point-in-time state of the album; never modified after construction
+    private static final class Version implements Album {
+        private final Shard[] shards;
+        private final int size;
+
+        Version(Shard[] shards, int size) {
+            this.shards = shards;
+            this.size = size;
+        }
+
+        Version with(int i, Shard shard, int size) {
+            Shard[] copy = shards.clone();
+            copy[i] = shard;
+            return new Version(copy, size);
+        }
+
+        int shardFor(int albumId, int photoId) {
+            return hash(albumId, photoId) & (shards.length - 1);
+        }
+
+        // this version, or the same photos over twice as many shards once the shards have grown too large;
+        // shard i splits into i and i + shards.length by the next bit of the hash
+        Version grown() {
+            int count = shards.length;
+            if (count == MAX_SHARDS || size <= 2L * count * count) {
+                return this;
+            }
+            Shard[] split = new Shard[count * 2];
+            for (int i = 0; i < count; i++) {
+                split[i] = shards[i].part(count, false);
+                split[i + count] = shards[i].part(count, true);
+            }
+            return new Version(split, size).grown();
+        }
+
+        @Override
+        public Photo getPhotoFromAlbum(int photoId, int albumId) {
+            Shard shard = shards[shardFor(albumId, photoId)];
+            int position = shard.indexOf(albumId, photoId);
+            return position < 0 ? null : shard.byId[position];
+        }
+
+        // in photoId order
+        @Override
+        public Photo[] getAllPhotoFromAlbum(int albumId) {
+            List<Photo> res = new ArrayList<>();
+            for (Shard shard : shards) {
+                int position = shard.indexOf(albumId, Integer.MIN_VALUE);
+                for (int j = position < 0 ? -position - 1 : position;
+                     j < shard.byId.length && shard.byId[j].getAlbumId() == albumId; j++) {
+                    res.add(shard.byId[j]);
+                }
+            }
+            Photo[] photos = res.toArray(new Photo[0]);
+            Arrays.sort(photos, ID_ORDER);
+            return photos;
+        }
+
+        // in DATE_ORDER
+        @Override
+        public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+            Photo from = new Photo(Integer.MIN_VALUE, Integer.MIN_VALUE, null, null, dateFrom.atStartOfDay());
+            Photo to = new Photo(Integer.MAX_VALUE, Integer.MAX_VALUE, null, null, dateTo.atTime(LocalTime.MAX));
+            List<Photo> res = new ArrayList<>();
+            for (Shard shard : shards) {
+                int start = Arrays.binarySearch(shard.byDate, from, DATE_ORDER);
+                start = start < 0 ? -start - 1 : start;
+                int end = Arrays.binarySearch(shard.byDate, to, DATE_ORDER);
+                end = end < 0 ? -end - 1 : end + 1;
+                res.addAll(Arrays.asList(shard.byDate).subList(start, Math.max(start, end)));
+            }
+            Photo[] photos = res.toArray(new Photo[0]);
+            Arrays.sort(photos, DATE_ORDER);
+            return photos;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        // the newest end of every shard's date array, merged
+        @Override
+        public Photo[] getLatestPhotos(int n) {
+            LatestPhotos.checkCount(n);
+            List<Photo> candidates = new ArrayList<>();
+            for (Shard shard : shards) {
+                for (int j = shard.byDate.length - 1, taken = 0;
+                     j >= 0 && taken < n && shard.byDate[j].getDate() != null; j--, taken++) {
+                    candidates.add(shard.byDate[j]);
+                }
+            }
+            return LatestPhotos.select(candidates.stream(), n);
+        }
+
+        @Override
+        public boolean addPhoto(Photo photo) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+
+        @Override
+        public boolean removePhoto(int photoId, int albumId) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+
+        @Override
+        public boolean updatePhoto(int photoId, int albumId, String url) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+    }
+
+    // the photos of one shard sorted two ways; every change returns a new shard
+    private static final class Shard {
+        static final Shard EMPTY = new Shard(new Photo[0], new Photo[0]);
+
+        private final Photo[] byId;
+        private final Photo[] byDate;
+
+        Shard(Photo[] byId, Photo[] byDate) {
+            this.byId = byId;
+            this.byDate = byDate;
+        }
+
+        // position in byId, or -(insertion point) - 1 like Arrays.binarySearch
+        int indexOf(int albumId, int photoId) {
+            int low = 0;
+            int high = byId.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                Photo photo = byId[middle];
+                int res = Integer.compare(photo.getAlbumId(), albumId);
+                if (res == 0) {
+                    res = Integer.compare(photo.getPhotoId(), photoId);
+                }
+                if (res < 0) {
+                    low = middle + 1;
+                } else if (res > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        // the photos whose hash has the given bit set or clear, in the same orders
+        Shard part(int bit, boolean set) {
+            return new Shard(part(byId, bit, set), part(byDate, bit, set));
+        }
+
+        Shard insert(int position, Photo photo) {
+            int datePosition = -Arrays.binarySearch(byDate, photo, DATE_ORDER) - 1;
+            return new Shard(inserted(byId, position, photo), inserted(byDate, datePosition, photo));
+        }
+
+        // merges photos that are not in the shard yet
+        Shard insertAll(Photo[] photos) {
+            Arrays.sort(photos, ID_ORDER);
+            Photo[] ids = merged(byId, photos, ID_ORDER);
+            Arrays.sort(photos, DATE_ORDER);
+            return new Shard(ids, merged(byDate, photos, DATE_ORDER));
+        }
+
+        Shard remove(int position) {
+            int datePosition = Arrays.binarySearch(byDate, byId[position], DATE_ORDER);
+            return new Shard(removed(byId, position), removed(byDate, datePosition));
+        }
+
+        // the replacement has the same ids and date, so it takes the same places in both orders
+        Shard replace(int position, Photo photo) {
+            int datePosition = Arrays.binarySearch(byDate, byId[position], DATE_ORDER);
+            Photo[] ids = byId.clone();
+            ids[position] = photo;
+            Photo[] dates = byDate.clone();
+            dates[datePosition] = photo;
+            return new Shard(ids, dates);
+        }
+
+        private static Photo[] part(Photo[] photos, int bit, boolean set) {
+            return Arrays.stream(photos)
+                    .filter(photo -> ((hash(photo.getAlbumId(), photo.getPhotoId()) & bit) != 0) == set)
+                    .toArray(Photo[]::new);
+        }
+
+        private static Photo[] inserted(Photo[] photos, int position, Photo photo) {
+            Photo[] res = new Photo[photos.length + 1];
+            System.arraycopy(photos, 0, res, 0, position);
+            res[position] = photo;
+            System.arraycopy(photos, position, res, position + 1, photos.length - position);
+            return res;
+        }
+
+        private static Photo[] removed(Photo[] photos, int position) {
+            Photo[] res = new Photo[photos.length - 1];
+            System.arraycopy(photos, 0, res, 0, position);
+            System.arraycopy(photos, position + 1, res, position, res.length - position);
+            return res;
+        }
+
+        private static Photo[] merged(Photo[] a, Photo[] b, Comparator<Photo> order) {
+            Photo[] res = new Photo[a.length + b.length];
+            int i = 0, j = 0, k = 0;
+            while (i < a.length && j < b.length) {
+                res[k++] = order.compare(a[i], b[j]) <= 0 ? a[i++] : b[j++];
+            }
+            System.arraycopy(a, i, res, k, a.length - i);
+            System.arraycopy(b, j, res, k + a.length - i, b.length - j);
+            return res;
+        }
+    }
+}
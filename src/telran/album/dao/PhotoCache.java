@@ -0,0 +1,15 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+// bounded key -> photo map used by CachingAlbum; implementations decide what to evict
+interface PhotoCache {
+    Photo get(long key);
+
+    // returns true when an entry had to be evicted to make room
+    boolean put(long key, Photo photo);
+
+    void invalidate(long key);
+
+    int size();
+}
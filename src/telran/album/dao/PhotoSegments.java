@@ -0,0 +1,59 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.util.Arrays;
+
+// growable photo array split into fixed-size segments; growing never copies the photos themselves,
+// only the (size / SEGMENT_SIZE) long directory of segment references
+class PhotoSegments {
+    static final int SEGMENT_SHIFT = 10;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private Photo[][] segments = new Photo[1][];
+    private int segmentCount;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    Photo get(int index) {
+        return segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+    }
+
+    void set(int index, Photo photo) {
+        segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK] = photo;
+    }
+
+    void add(Photo photo) {
+        int segment = size >>> SEGMENT_SHIFT;
+        if (segment == segmentCount) {
+            if (segmentCount == segments.length) {
+                segments = Arrays.copyOf(segments, segmentCount * 2);
+            }
+            segments[segmentCount++] = new Photo[SEGMENT_SIZE];
+        }
+        segments[segment][size & SEGMENT_MASK] = photo;
+        size++;
+    }
+
+    Photo removeLast() {
+        Photo removed = get(--size);
+        set(size, null);
+        releaseTail();
+        return removed;
+    }
+
+    // keeps at most one empty segment past the end so add/remove at a boundary does not thrash
+    private void releaseTail() {
+        int used = (size + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+        while (segmentCount > used + 1) {
+            segments[--segmentCount] = null;
+        }
+        if (segmentCount > 1 && segmentCount * 4 <= segments.length) {
+            segments = Arrays.copyOf(segments, segments.length / 2);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// aggregates kept up to date on every add and remove: photos per day and per month of their dates, and the
+// photos of each album in DATE_ORDER for its first, last and latest photos. Photos without a date are
+// counted in no day or month.
+class PhotoStatistics {
+    // a photo with the earliest possible date sorts after every photo without a date and before any other
+    private static final Photo FIRST_DATED = new Photo(Integer.MIN_VALUE, Integer.MIN_VALUE, null, null,
+            LocalDateTime.MIN);
+
+    private final NavigableMap<LocalDate, Integer> perDay = new TreeMap<>();
+    private final NavigableMap<YearMonth, Integer> perMonth = new TreeMap<>();
+    private final Map<Integer, NavigableSet<Photo>> albumDates = new HashMap<>();
+
+    void add(Photo photo) {
+        albumDates.computeIfAbsent(photo.getAlbumId(), k -> new TreeSet<>(Album.DATE_ORDER)).add(photo);
+        count(photo);
+    }
+
+    void remove(Photo photo) {
+        NavigableSet<Photo> album = albumDates.get(photo.getAlbumId());
+        album.remove(photo);
+        if (album.isEmpty()) {
+            albumDates.remove(photo.getAlbumId());
+        }
+        LocalDateTime date = photo.getDate();
+        if (date != null) {
+            perDay.merge(date.toLocalDate(), -1, PhotoStatistics::decrement);
+            perMonth.merge(YearMonth.from(date), -1, PhotoStatistics::decrement);
+        }
+    }
+
+    // a copy with the same ids and date takes the place of the stored photo
+    void replace(Photo photo, Photo updated) {
+        NavigableSet<Photo> album = albumDates.get(photo.getAlbumId());
+        album.remove(photo);
+        album.add(updated);
+    }
+
+    // the album's photos in DATE_ORDER, empty for an unknown album
+    NavigableSet<Photo> albumDates(int albumId) {
+        return albumDates.getOrDefault(albumId, Collections.emptyNavigableSet());
+    }
+
+    LocalDateTime firstDate(int albumId) {
+        Photo first = albumDates(albumId).ceiling(FIRST_DATED);
+        return first == null ? null : first.getDate();
+    }
+
+    LocalDateTime lastDate(int albumId) {
+        NavigableSet<Photo> album = albumDates(albumId);
+        return album.isEmpty() ? null : album.last().getDate();
+    }
+
+    NavigableMap<LocalDate, Integer> perDay(LocalDate from, LocalDate to) {
+        return from.isAfter(to) ? new TreeMap<>() : new TreeMap<>(perDay.subMap(from, true, to, true));
+    }
+
+    NavigableMap<YearMonth, Integer> perMonth(YearMonth from, YearMonth to) {
+        return from.isAfter(to) ? new TreeMap<>() : new TreeMap<>(perMonth.subMap(from, true, to, true));
+    }
+
+    private void count(Photo photo) {
+        LocalDateTime date = photo.getDate();
+        if (date != null) {
+            perDay.merge(date.toLocalDate(), 1, Integer::sum);
+            perMonth.merge(YearMonth.from(date), 1, Integer::sum);
+        }
+    }
+
+    // merge function that drops a bucket when its count reaches zero
+    private static Integer decrement(Integer count, Integer minusOne) {
+        return count + minusOne == 0 ? null : count + minusOne;
+    }
+}
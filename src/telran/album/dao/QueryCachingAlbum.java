@@ -0,0 +1,143 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// caches getAllPhotoFromAlbum and getPhotoBetweenDate results; a change to a photo evicts only the
+// entry of its album and the cached date ranges that contain its date. Not thread-safe, like AlbumImpl
+public class QueryCachingAlbum implements Album {
+    private final Album album;
+    private final Map<Integer, Photo[]> albumResults;
+    private final Map<DateRange, Photo[]> rangeResults;
+    private long hitCount;
+    private long missCount;
+
+    private record DateRange(LocalDate from, LocalDate to) {
+        boolean contains(LocalDateTime date) {
+            LocalDate day = date.toLocalDate();
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    public QueryCachingAlbum(Album album, int maximumEntries) {
+        if (maximumEntries <= 0) {
+            throw new IllegalArgumentException("Illegal maximum entries: " + maximumEntries);
+        }
+        this.album = album;
+        albumResults = lruMap(maximumEntries);
+        rangeResults = lruMap(maximumEntries);
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (!album.addPhoto(photo)) {
+            return false;
+        }
+        invalidate(photo);
+        return true;
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        Photo photo = album.getPhotoFromAlbum(photoId, albumId);
+        if (photo == null || !album.removePhoto(photoId, albumId)) {
+            return false;
+        }
+        invalidate(photo);
+        return true;
+    }
+
+    // implementations that hand out copies would leave stale urls in cached results
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        Photo photo = album.getPhotoFromAlbum(photoId, albumId);
+        if (photo == null || !album.updatePhoto(photoId, albumId, url)) {
+            return false;
+        }
+        invalidate(photo);
+        return true;
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        return album.getPhotoFromAlbum(photoId, albumId);
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        Photo[] res = albumResults.get(albumId);
+        if (res == null) {
+            missCount++;
+            res = album.getAllPhotoFromAlbum(albumId);
+            albumResults.put(albumId, res);
+        } else {
+            hitCount++;
+        }
+        return res.clone();
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        DateRange range = new DateRange(dateFrom, dateTo);
+        Photo[] res = rangeResults.get(range);
+        if (res == null) {
+            missCount++;
+            res = album.getPhotoBetweenDate(dateFrom, dateTo);
+            rangeResults.put(range, res);
+        } else {
+            hitCount++;
+        }
+        return res.clone();
+    }
+
+    @Override
+    public int size() {
+        return album.size();
+    }
+
+    // forwarded uncached; the defaults would cache the whole album as one date range entry
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        return album.getLatestPhotos(albumId, n);
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        return album.getLatestPhotos(n);
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    private void invalidate(Photo photo) {
+        albumResults.remove(photo.getAlbumId());
+        if (photo.getDate() == null) {
+            return;
+        }
+        Iterator<DateRange> ranges = rangeResults.keySet().iterator();
+        while (ranges.hasNext()) {
+            if (ranges.next().contains(photo.getDate())) {
+                ranges.remove();
+            }
+        }
+    }
+
+    private static <K> Map<K, Photo[]> lruMap(int maximumEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Photo[]> eldest) {
+                return size() > maximumEntries;
+            }
+        };
+    }
+}
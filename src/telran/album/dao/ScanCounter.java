@@ -0,0 +1,24 @@
+package telran.album.dao;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// the counter behind ScanStatistics: off until enabled, so an album nobody measures pays one volatile read
+// per query, and safe to add to from queries that run in parallel, such as reads of a ConcurrentAlbum stripe
+final class ScanCounter {
+    private volatile boolean enabled;
+    private final LongAdder scanned = new LongAdder();
+
+    void add(long count) {
+        if (enabled) {
+            scanned.add(count);
+        }
+    }
+
+    long sum() {
+        return scanned.sum();
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,10 @@
+package telran.album.dao;
+
+// implemented by albums that can tell how many stored photos their queries have visited;
+// counting is off until setScanCounting(true), and while it is on the counter only grows
+// and is read before and after a call to attribute the work to it
+public interface ScanStatistics {
+    void setScanCounting(boolean enabled);
+
+    long elementsScanned();
+}
@@ -0,0 +1,25 @@
+package telran.album.dao;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+
+// carries requests from a ShardedAlbum to the Album of each shard, wherever that album lives.
+// Requests are serializable lambdas that capture only ids, strings, dates and photos, and they return
+// photos, arrays of photos, booleans or counts, all of which serialize, so a remote transport can ship
+// a request to the node that owns the shard and its result back; the node needs the same classes.
+public interface ShardTransport extends Closeable {
+
+    @FunctionalInterface
+    interface Request<T> extends Serializable {
+        T apply(Album album);
+    }
+
+    int shardCount();
+
+    // completes with the request's result, or exceptionally if the shard could not be reached
+    <T> CompletableFuture<T> send(int shard, Request<T> request);
+
+    @Override
+    void close();
+}
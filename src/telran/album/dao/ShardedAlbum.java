@@ -0,0 +1,260 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/*
+Album partitioned by albumId over the shards of a ShardTransport. Point operations and
+getAllPhotoFromAlbum go to the one shard owning the album; getPhotoBetweenDate and the batch
+operations are sent to all shards at once and their results gathered, so shards work in parallel.
+getPhotoBetweenDate merges the shards' results into DATE_ORDER.
+
+Capacity and size are kept here, so every write to the shards must go through this album.
+A photo that turns out to be a duplicate holds its capacity slot while its request is in flight.
+When a request fails, size follows the answers that did come back: a failed addPhoto gives its slot
+back and a failed removePhoto keeps it, although the shard may have applied the change before the
+failure reached this album (a lost reply on a remote transport), so size can drift from the shards'
+contents after transport failures.
+ */
+public class ShardedAlbum implements Album, Closeable {
+    private final ShardTransport transport;
+    private final int capacity;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ShardedAlbum(ShardTransport transport) {
+        this(transport, Integer.MAX_VALUE);
+    }
+
+    public ShardedAlbum(ShardTransport transport, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.transport = transport;
+        this.capacity = capacity;
+    }
+
+    // if the request fails, the slot is given back even though the shard may have added the photo
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (photo == null || reserve(1) == 0) {
+            return false;
+        }
+        boolean added = false;
+        try {
+            added = join(transport.send(shardFor(photo.getAlbumId()), album -> album.addPhoto(photo)));
+            return added;
+        } finally {
+            if (!added) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        if (!join(transport.send(shardFor(albumId), album -> album.removePhoto(photoId, albumId)))) {
+            return false;
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        return join(transport.send(shardFor(albumId), album -> album.updatePhoto(photoId, albumId, url)));
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        return join(transport.send(shardFor(albumId), album -> album.getPhotoFromAlbum(photoId, albumId)));
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        return join(transport.send(shardFor(albumId), album -> album.getAllPhotoFromAlbum(albumId)));
+    }
+
+    // each shard's part is put in DATE_ORDER, which is a linear check for the albums that already return
+    // it, and the parts are merged, so the result does not depend on how albums are spread over shards
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        List<CompletableFuture<Photo[]>> parts = new ArrayList<>(transport.shardCount());
+        for (int shard = 0; shard < transport.shardCount(); shard++) {
+            parts.add(transport.send(shard, album -> album.getPhotoBetweenDate(dateFrom, dateTo)));
+        }
+        int total = 0;
+        Photo[][] results = new Photo[parts.size()][];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = join(parts.get(i));
+            Arrays.sort(results[i], DATE_ORDER);
+            total += results[i].length;
+        }
+        return merge(results, total);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        return join(transport.send(shardFor(albumId), album -> album.getLatestPhotos(albumId, n)));
+    }
+
+    // every shard returns only its latest n, so at most n per shard crosses the transport
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        LatestPhotos.checkCount(n);
+        List<CompletableFuture<Photo[]>> parts = new ArrayList<>(transport.shardCount());
+        for (int shard = 0; shard < transport.shardCount(); shard++) {
+            parts.add(transport.send(shard, album -> album.getLatestPhotos(n)));
+        }
+        List<Photo> candidates = new ArrayList<>();
+        for (CompletableFuture<Photo[]> part : parts) {
+            candidates.addAll(Arrays.asList(join(part)));
+        }
+        return LatestPhotos.select(candidates.stream(), n);
+    }
+
+    @Override
+    public int addPhotos(Photo[] photos) {
+        int count = 0;
+        for (Photo photo : photos) {
+            if (photo != null) {
+                count++;
+            }
+        }
+        int reserved = reserve(count);
+        if (reserved < count) {
+            // near capacity the outcome depends on the order of the photos, so they go one by one
+            size.addAndGet(-reserved);
+            return Album.super.addPhotos(photos);
+        }
+        return scatter(photos, part -> album -> album.addPhotos(part), added -> size.addAndGet(added - reserved));
+    }
+
+    @Override
+    public int removePhotos(Photo[] photos) {
+        return scatter(photos, part -> album -> album.removePhotos(part), removed -> size.addAndGet(-removed));
+    }
+
+    @Override
+    public int updatePhotos(Photo[] photos) {
+        return scatter(photos, part -> album -> album.updatePhotos(part), updated -> {
+        });
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+
+    // sends each shard its part of the batch, all shards at once, and sums the counts they return.
+    // It waits for every shard and hands the sum of the counts that did come back to counted before
+    // rethrowing the first failure, so the size stays in step with the shards that applied their part;
+    // what a failed shard applied before failing is not known here.
+    private int scatter(Photo[] photos, Function<Photo[], ShardTransport.Request<Integer>> request,
+                        IntConsumer counted) {
+        List<List<Photo>> parts = new ArrayList<>(transport.shardCount());
+        for (int shard = 0; shard < transport.shardCount(); shard++) {
+            parts.add(new ArrayList<>());
+        }
+        for (Photo photo : photos) {
+            if (photo != null) {
+                parts.get(shardFor(photo.getAlbumId())).add(photo);
+            }
+        }
+        List<CompletableFuture<Integer>> counts = new ArrayList<>();
+        for (int shard = 0; shard < parts.size(); shard++) {
+            if (!parts.get(shard).isEmpty()) {
+                counts.add(transport.send(shard, request.apply(parts.get(shard).toArray(new Photo[0]))));
+            }
+        }
+        int res = 0;
+        RuntimeException failure = null;
+        Error error = null;
+        for (CompletableFuture<Integer> count : counts) {
+            try {
+                res += join(count);
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            } catch (Error e) {
+                error = error == null ? e : error;
+            }
+        }
+        counted.accept(res);
+        if (error != null) {
+            throw error;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return res;
+    }
+
+    // k-way merge of parts that are each in DATE_ORDER, by a heap of part indexes ordered by their next photo
+    private static Photo[] merge(Photo[][] parts, int total) {
+        int[] next = new int[parts.length];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(parts.length, 1),
+                (i, j) -> DATE_ORDER.compare(parts[i][next[i]], parts[j][next[j]]));
+        for (int i = 0; i < parts.length; i++) {
+            if (parts[i].length > 0) {
+                heads.add(i);
+            }
+        }
+        Photo[] res = new Photo[total];
+        for (int j = 0; j < total; j++) {
+            int i = heads.remove();
+            res[j] = parts[i][next[i]++];
+            if (next[i] < parts[i].length) {
+                heads.add(i);
+            }
+        }
+        return res;
+    }
+
+    // reserves up to count slots of capacity and returns how many were reserved
+    private int reserve(int count) {
+        int current;
+        int granted;
+        do {
+            current = size.get();
+            granted = Math.min(count, capacity - current);
+            if (granted == 0) {
+                return 0;
+            }
+        } while (!size.compareAndSet(current, current + granted));
+        return granted;
+    }
+
+    private int shardFor(int albumId) {
+        int h = albumId * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), transport.shardCount());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+W-TinyLFU: new entries go to a small LRU window (1% of the cache). A window victim is admitted to the
+main segmented LRU only if a count-min sketch says it is used more often than the main victim; otherwise
+it is dropped. Main is split into probation (20%) and protected (80%); a probation hit promotes the entry.
+The sketch is halved after 10 * maximumSize accesses so old popularity fades.
+ */
+class TinyLfuPhotoCache implements PhotoCache {
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    // insertion order is LRU order: an access removes and re-inserts the entry
+    private final LinkedHashMap<Long, Photo> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Photo> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Photo> protectedSegment = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+
+    TinyLfuPhotoCache(int maximumSize) {
+        windowCapacity = Math.max(1, maximumSize / 100);
+        mainCapacity = Math.max(0, maximumSize - windowCapacity);
+        protectedCapacity = mainCapacity * 4 / 5;
+        sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public Photo get(long key) {
+        sketch.increment(key);
+        Photo photo = window.remove(key);
+        if (photo != null) {
+            window.put(key, photo);
+            return photo;
+        }
+        photo = protectedSegment.remove(key);
+        if (photo != null) {
+            protectedSegment.put(key, photo);
+            return photo;
+        }
+        photo = probation.remove(key);
+        if (photo != null) {
+            protectedSegment.put(key, photo);
+            if (protectedSegment.size() > protectedCapacity) {
+                Map.Entry<Long, Photo> demoted = pollFirst(protectedSegment);
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        return photo;
+    }
+
+    @Override
+    public boolean put(long key, Photo photo) {
+        if (window.containsKey(key) || protectedSegment.containsKey(key) || probation.containsKey(key)) {
+            invalidate(key);
+        }
+        window.put(key, photo);
+        if (window.size() <= windowCapacity) {
+            return false;
+        }
+        Map.Entry<Long, Photo> candidate = pollFirst(window);
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return false;
+        }
+        if (mainCapacity == 0) {
+            return true;
+        }
+        Map<Long, Photo> victims = probation.isEmpty() ? protectedSegment : probation;
+        long victim = victims.keySet().iterator().next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+        return true;
+    }
+
+    @Override
+    public void invalidate(long key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    private static Map.Entry<Long, Photo> pollFirst(LinkedHashMap<Long, Photo> map) {
+        Iterator<Map.Entry<Long, Photo>> iterator = map.entrySet().iterator();
+        Map.Entry<Long, Photo> first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+
+    // count-min sketch with four rows of saturating 4-bit counters (kept one per byte)
+    static class FrequencySketch {
+        private static final long[] SEEDS = {
+                0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+        };
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] rows = new byte[SEEDS.length][];
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 24)) - 1) << 1;
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new byte[width];
+            }
+            mask = width - 1;
+            sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(maximumSize, 16));
+        }
+
+        void increment(long key) {
+            boolean added = false;
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(key, i);
+                if (rows[i][index] < MAX_COUNT) {
+                    rows[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(long key) {
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < rows.length; i++) {
+                frequency = Math.min(frequency, rows[i][index(key, i)]);
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (byte[] row : rows) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+
+        private int index(long key, int row) {
+            long h = (key + SEEDS[row]) * SEEDS[row];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// inverted index of title tokens: lower-cased runs of letters and digits -> photos whose title contains them
+class TitleIndex {
+    private final NavigableMap<String, Set<Photo>> postings = new TreeMap<>();
+
+    void add(Photo photo, String title) {
+        for (String token : tokenize(title)) {
+            postings.computeIfAbsent(token, k -> new HashSet<>()).add(photo);
+        }
+    }
+
+    void remove(Photo photo, String title) {
+        for (String token : tokenize(title)) {
+            Set<Photo> photos = postings.get(token);
+            if (photos != null && photos.remove(photo) && photos.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    // photos whose title contains every token of the query
+    Photo[] search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new Photo[0];
+        }
+        List<Set<Photo>> matches = new ArrayList<>(tokens.size());
+        Set<Photo> smallest = null;
+        for (String token : tokens) {
+            Set<Photo> photos = postings.get(token);
+            if (photos == null) {
+                return new Photo[0];
+            }
+            matches.add(photos);
+            if (smallest == null || photos.size() < smallest.size()) {
+                smallest = photos;
+            }
+        }
+        List<Photo> res = new ArrayList<>();
+        for (Photo photo : smallest) {
+            if (containsAll(matches, photo)) {
+                res.add(photo);
+            }
+        }
+        return res.toArray(new Photo[0]);
+    }
+
+    // photos with a title token that starts with the prefix
+    Photo[] searchPrefix(String prefix) {
+        String token = prefix.toLowerCase(Locale.ROOT);
+        if (token.isEmpty()) {
+            return new Photo[0];
+        }
+        Collection<Set<Photo>> matches = postings.subMap(token, true, token + Character.MAX_VALUE, false).values();
+        if (matches.size() == 1) {
+            return matches.iterator().next().toArray(new Photo[0]);
+        }
+        Set<Photo> res = new LinkedHashSet<>();
+        for (Set<Photo> photos : matches) {
+            res.addAll(photos);
+        }
+        return res.toArray(new Photo[0]);
+    }
+
+    private static boolean containsAll(List<Set<Photo>> matches, Photo photo) {
+        for (Set<Photo> photos : matches) {
+            if (!photos.contains(photo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,411 @@
+package telran.album.dao;
+
+import telran.album.model.Photo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/*
+Write-ahead log around any Album. Successful addPhoto/removePhoto/updatePhoto calls are appended to
+the log as [length int][crc32 int][payload] records and replayed into the wrapped album on open;
+replay stops at the first torn or corrupt record and the log is truncated there.
+
+FsyncPolicy.SYNC   - every mutation is written and forced before the call returns; the default
+FsyncPolicy.GROUP  - records are written and forced together once batchSize of them are buffered.
+                     Calls return before their record is forced, so a crash can lose up to batchSize - 1
+                     mutations that were already acknowledged; only SYNC is durable per call
+FsyncPolicy.LAZY   - records are written in batches and left to the OS; forced only by sync/checkpoint/close
+
+checkpoint() rewrites the log as one ADD record per current photo. Dated photos are enumerated with
+getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX) and photos without a date by the keys the log keeps
+for them, so the wrapped album must not receive photos without a date except through this decorator;
+automatic checkpoints check that when the log is opened.
+ */
+public class WalAlbum implements Album, Closeable {
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte UPDATE = 3;
+    private static final int RECORD_HEADER = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum FsyncPolicy {
+        SYNC, GROUP, LAZY
+    }
+
+    private final Album album;
+    private final Path log;
+    private final FsyncPolicy policy;
+    private final int batchSize;
+    private final int checkpointInterval;
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private int buffered;
+    private int sinceCheckpoint;
+    // keys of the photos without a date, which getPhotoBetweenDate never returns
+    private final Set<Long> undated = new HashSet<>();
+
+    public WalAlbum(Album album, Path log) throws IOException {
+        this(album, log, FsyncPolicy.SYNC, 1, 0);
+    }
+
+    // checkpointInterval is the number of logged mutations between automatic checkpoints, 0 for manual only
+    public WalAlbum(Album album, Path log, FsyncPolicy policy, int batchSize, int checkpointInterval)
+            throws IOException {
+        if (batchSize <= 0 || checkpointInterval < 0) {
+            throw new IllegalArgumentException("Illegal batch size or checkpoint interval");
+        }
+        this.album = album;
+        this.log = log;
+        this.policy = policy;
+        this.batchSize = policy == FsyncPolicy.SYNC ? 1 : batchSize;
+        this.checkpointInterval = checkpointInterval;
+        channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            sinceCheckpoint = recover();
+            if (checkpointInterval > 0 && album.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).length
+                    + undated.size() != album.size()) {
+                throw new IllegalArgumentException("The album holds photos without a date that were not logged");
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean addPhoto(Photo photo) {
+        if (!album.addPhoto(photo)) {
+            return false;
+        }
+        if (photo.getDate() == null) {
+            undated.add(IndexedAlbumImpl.key(photo.getAlbumId(), photo.getPhotoId()));
+        }
+        putAdd(photo);
+        commit();
+        return true;
+    }
+
+    @Override
+    public boolean removePhoto(int photoId, int albumId) {
+        if (!album.removePhoto(photoId, albumId)) {
+            return false;
+        }
+        undated.remove(IndexedAlbumImpl.key(albumId, photoId));
+        begin(1 + 8).put(REMOVE).putInt(albumId).putInt(photoId);
+        commit();
+        return true;
+    }
+
+    @Override
+    public boolean updatePhoto(int photoId, int albumId, String url) {
+        if (!album.updatePhoto(photoId, albumId, url)) {
+            return false;
+        }
+        byte[] bytes = bytes(url);
+        ByteBuffer record = begin(1 + 8 + length(bytes));
+        record.put(UPDATE).putInt(albumId).putInt(photoId);
+        putBytes(record, bytes);
+        commit();
+        return true;
+    }
+
+    @Override
+    public Photo getPhotoFromAlbum(int photoId, int albumId) {
+        return album.getPhotoFromAlbum(photoId, albumId);
+    }
+
+    @Override
+    public Photo[] getAllPhotoFromAlbum(int albumId) {
+        return album.getAllPhotoFromAlbum(albumId);
+    }
+
+    @Override
+    public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+        return album.getPhotoBetweenDate(dateFrom, dateTo);
+    }
+
+    @Override
+    public int size() {
+        return album.size();
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int albumId, int n) {
+        return album.getLatestPhotos(albumId, n);
+    }
+
+    @Override
+    public Photo[] getLatestPhotos(int n) {
+        return album.getLatestPhotos(n);
+    }
+
+    // writes and forces every buffered record
+    public void sync() {
+        try {
+            flush();
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // replaces the log with the current state of the album and drops the history
+    public void checkpoint() {
+        Photo[] dated = album.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX);
+        if (dated.length + undated.size() != album.size()) {
+            throw new IllegalStateException("The album holds photos without a date that were not logged");
+        }
+        Photo[] photos = Arrays.copyOf(dated, album.size());
+        int i = dated.length;
+        for (long key : undated) {
+            photos[i++] = album.getPhotoFromAlbum((int) key, (int) (key >> 32));
+        }
+        Path tmp = log.resolveSibling(log.getFileName() + ".tmp");
+        FileChannel current = channel;
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            for (Photo photo : photos) {
+                putAdd(photo);
+                end();
+            }
+            flush();
+            channel.force(true);
+            // the open channel follows the file through the rename, so the log is never reopened
+            Files.move(tmp, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException e) {
+            // the old log is still open and complete; only the new one is thrown away
+            buffer.clear();
+            buffered = 0;
+            if (channel != current) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(tmp);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                channel = current;
+            }
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (UncheckedIOException) e;
+        }
+        sinceCheckpoint = 0;
+        try {
+            current.close();
+        } catch (IOException e) {
+            // the old log is already replaced, nothing is lost
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // replays the log into the album in chunks of BUFFER_SIZE and returns the number of records read;
+    // a record longer than the chunk gets a buffer of its own
+    private int recover() throws IOException {
+        long fileSize = channel.size();
+        long read = 0;
+        long valid = 0;
+        int records = 0;
+        ByteBuffer data = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        try {
+            while (true) {
+                int required = RECORD_HEADER;
+                if (data.remaining() >= RECORD_HEADER) {
+                    int length = data.getInt(data.position());
+                    if (length <= 0 || length > fileSize - valid - RECORD_HEADER) {
+                        // corrupt, or torn: the log ends inside the record
+                        break;
+                    }
+                    required += length;
+                    if (data.remaining() >= required) {
+                        crc.reset();
+                        crc.update(data.array(), data.position() + RECORD_HEADER, length);
+                        if ((int) crc.getValue() != data.getInt(data.position() + 4)) {
+                            break;
+                        }
+                        ByteBuffer payload = data.slice(data.position() + RECORD_HEADER, length);
+                        data.position(data.position() + required);
+                        replay(payload);
+                        valid += required;
+                        records++;
+                        continue;
+                    }
+                }
+                if (required > data.capacity()) {
+                    data = ByteBuffer.allocate(required).put(data);
+                } else {
+                    data.compact();
+                }
+                long before = read;
+                int n;
+                while (data.hasRemaining() && read < fileSize && (n = channel.read(data, read)) > 0) {
+                    read += n;
+                }
+                data.flip();
+                if (read == before) {
+                    // a torn header at the end of the log
+                    break;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // a record that passed its checksum but does not parse is treated as the torn tail
+        }
+        channel.truncate(valid);
+        channel.position(valid);
+        return records;
+    }
+
+    private void replay(ByteBuffer payload) {
+        byte op = payload.get();
+        int albumId = payload.getInt();
+        int photoId = payload.getInt();
+        switch (op) {
+            case ADD -> {
+                long seconds = payload.getLong();
+                int nano = payload.getInt();
+                String title = getString(payload);
+                String url = getString(payload);
+                if (album.addPhoto(new Photo(albumId, photoId, title, url,
+                        nano < 0 ? null : LocalDateTime.ofEpochSecond(seconds, nano, ZoneOffset.UTC)))
+                        && nano < 0) {
+                    undated.add(IndexedAlbumImpl.key(albumId, photoId));
+                }
+            }
+            case REMOVE -> {
+                if (album.removePhoto(photoId, albumId)) {
+                    undated.remove(IndexedAlbumImpl.key(albumId, photoId));
+                }
+            }
+            case UPDATE -> album.updatePhoto(photoId, albumId, getString(payload));
+            default -> throw new BufferUnderflowException();
+        }
+    }
+
+    private void putAdd(Photo photo) {
+        byte[] title = bytes(photo.getTitle());
+        byte[] url = bytes(photo.getUrl());
+        ByteBuffer record = begin(1 + 8 + 8 + 4 + length(title) + length(url));
+        record.put(ADD).putInt(photo.getAlbumId()).putInt(photo.getPhotoId());
+        LocalDateTime date = photo.getDate();
+        record.putLong(date == null ? 0 : date.toEpochSecond(ZoneOffset.UTC))
+                .putInt(date == null ? -1 : date.getNano());
+        putBytes(record, title);
+        putBytes(record, url);
+    }
+
+    // reserves room for a record header and a payload of the given length in the write buffer
+    private ByteBuffer begin(int payloadLength) {
+        int required = RECORD_HEADER + payloadLength;
+        if (buffer.remaining() < required) {
+            flushUnchecked();
+            if (buffer.capacity() < required) {
+                buffer = ByteBuffer.allocate(required);
+            }
+        }
+        buffer.mark();
+        buffer.putInt(0).putInt(0);
+        return buffer;
+    }
+
+    // fills in the length and checksum of the record started by the last begin
+    private void end() {
+        int end = buffer.position();
+        buffer.reset();
+        int start = buffer.position();
+        int length = end - start - RECORD_HEADER;
+        crc.reset();
+        crc.update(buffer.array(), start + RECORD_HEADER, length);
+        buffer.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+        buffer.position(end);
+    }
+
+    private void commit() {
+        end();
+        buffered++;
+        sinceCheckpoint++;
+        if (buffered >= batchSize) {
+            flushUnchecked();
+            if (policy != FsyncPolicy.LAZY) {
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        if (checkpointInterval > 0 && sinceCheckpoint >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        buffered = 0;
+    }
+
+    private void flushUnchecked() {
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,209 @@
+package telran.album.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Per-operation counters and histograms: latency in nanoseconds, result size, and the number of stored
+elements the backing album visited. Exposed through snapshot() and, once registered, as a JMX MBean
+with one attribute per operation and statistic, e.g. getPhotoBetweenDateP99Nanos.
+ */
+public class AlbumMetrics implements DynamicMBean {
+    private static final String[] STATISTICS = {
+            "Count", "MeanNanos", "P50Nanos", "P99Nanos", "P999Nanos", "MaxNanos",
+            "ElementsScanned", "MeanResultSize", "MaxResultSize"
+    };
+
+    private volatile boolean enabled = true;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> resultSizes = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> elementsScanned = new EnumMap<>(Operation.class);
+
+    public record OperationSnapshot(long count, double meanNanos, long p50Nanos, long p99Nanos, long p999Nanos,
+                                    long maxNanos, long elementsScanned, double meanResultSize,
+                                    long maxResultSize) {
+    }
+
+    public AlbumMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Histogram());
+            resultSizes.put(operation, new Histogram());
+            elementsScanned.put(operation, new AtomicLong());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // resultSize and scanned are -1 when not applicable or unknown
+    public void record(Operation operation, long nanos, long resultSize, long scanned) {
+        latencies.get(operation).record(nanos);
+        if (resultSize >= 0) {
+            resultSizes.get(operation).record(resultSize);
+        }
+        if (scanned > 0) {
+            elementsScanned.get(operation).addAndGet(scanned);
+        }
+    }
+
+    public OperationSnapshot snapshot(Operation operation) {
+        Histogram latency = latencies.get(operation);
+        Histogram results = resultSizes.get(operation);
+        return new OperationSnapshot(latency.count(), latency.mean(), latency.percentile(0.5),
+                latency.percentile(0.99), latency.percentile(0.999), latency.max(),
+                elementsScanned.get(operation).get(), results.mean(), results.max());
+    }
+
+    public Map<Operation, OperationSnapshot> snapshot() {
+        Map<Operation, OperationSnapshot> res = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            res.put(operation, snapshot(operation));
+        }
+        return res;
+    }
+
+    public void reset() {
+        for (Operation operation : Operation.values()) {
+            latencies.get(operation).reset();
+            resultSizes.get(operation).reset();
+            elementsScanned.get(operation).set(0);
+        }
+    }
+
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("telran.album:type=AlbumMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    //==========_________DynamicMBean____===========
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (attribute.equals("Enabled")) {
+            return enabled;
+        }
+        for (Operation operation : Operation.values()) {
+            String name = operation.name();
+            if (attribute.startsWith(name)) {
+                OperationSnapshot snapshot = snapshot(operation);
+                switch (attribute.substring(name.length())) {
+                    case "Count" -> {
+                        return snapshot.count();
+                    }
+                    case "MeanNanos" -> {
+                        return snapshot.meanNanos();
+                    }
+                    case "P50Nanos" -> {
+                        return snapshot.p50Nanos();
+                    }
+                    case "P99Nanos" -> {
+                        return snapshot.p99Nanos();
+                    }
+                    case "P999Nanos" -> {
+                        return snapshot.p999Nanos();
+                    }
+                    case "MaxNanos" -> {
+                        return snapshot.maxNanos();
+                    }
+                    case "ElementsScanned" -> {
+                        return snapshot.elementsScanned();
+                    }
+                    case "MeanResultSize" -> {
+                        return snapshot.meanResultSize();
+                    }
+                    case "MaxResultSize" -> {
+                        return snapshot.maxResultSize();
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException, InvalidAttributeValueException {
+        if (!attribute.getName().equals("Enabled")) {
+            throw new AttributeNotFoundException(attribute.getName());
+        }
+        if (!(attribute.getValue() instanceof Boolean value)) {
+            throw new InvalidAttributeValueException("Enabled must be a boolean");
+        }
+        enabled = value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList res = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                res.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // unknown attributes are left out, as the DynamicMBean contract allows
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        AttributeList res = new AttributeList();
+        for (Attribute attribute : attributes.asList()) {
+            try {
+                setAttribute(attribute);
+                res.add(attribute);
+            } catch (AttributeNotFoundException | InvalidAttributeValueException e) {
+                // only the attributes that were set are returned
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if (actionName.equals("reset") && (params == null || params.length == 0)) {
+            reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        attributes.add(new MBeanAttributeInfo("Enabled", "boolean", "Whether operations are recorded",
+                true, true, true));
+        for (Operation operation : Operation.values()) {
+            for (String statistic : STATISTICS) {
+                String type = statistic.startsWith("Mean") ? "double" : "long";
+                attributes.add(new MBeanAttributeInfo(operation.name() + statistic, type,
+                        statistic + " of " + operation.name(), true, false, false));
+            }
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clears all counters and histograms",
+                null, "void", MBeanOperationInfo.ACTION);
+        return new MBeanInfo(getClass().getName(), "Album operation metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[]{reset}, null);
+    }
+}
@@ -0,0 +1,7 @@
+package telran.album.metrics;
+
+// Album methods that are measured, named as in the interface
+public enum Operation {
+    addPhoto, removePhoto, updatePhoto, getPhotoFromAlbum, getAllPhotoFromAlbum, getPhotoBetweenDate,
+    getLatestPhotos, addPhotos, removePhotos, updatePhotos
+}
@@ -0,0 +1,88 @@
+package telran.album.model;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// compact Photo: the title is interned and the url is kept as the id of a shared prefix plus its own
+// suffix, so photos from the same CDN path share one copy of the prefix. Photo's final title and url
+// fields hold the interned title and the suffix.
+// The full url is built on the first getUrl and cached in a plain field the way String caches its hash:
+// a thread that sees no cached value builds an equal String itself, so the race is benign.
+public final class ImmutablePhoto extends Photo {
+    private static final long serialVersionUID = 1L;
+
+    private final char prefixId;
+    private transient String fullUrl;
+
+    public ImmutablePhoto(int albumId, int photoId, String title, String url, LocalDateTime date) {
+        this(albumId, photoId, PhotoPool.title(title), url, url == null ? 0 : PhotoPool.prefixId(url), date);
+    }
+
+    // title is already interned
+    private ImmutablePhoto(int albumId, int photoId, String title, String url, int prefixId, LocalDateTime date) {
+        super(albumId, photoId, title, url == null ? null : url.substring(PhotoPool.prefix(prefixId).length()),
+                date);
+        this.prefixId = (char) prefixId;
+    }
+
+    public static ImmutablePhoto of(Photo photo) {
+        return photo instanceof ImmutablePhoto immutable ? immutable
+                : new ImmutablePhoto(photo.getAlbumId(), photo.getPhotoId(), photo.getTitle(), photo.getUrl(),
+                photo.getDate());
+    }
+
+    @Override
+    public ImmutablePhoto withUrl(String url) {
+        return new ImmutablePhoto(getAlbumId(), getPhotoId(), getTitle(), url,
+                url == null ? 0 : PhotoPool.prefixId(url), getDate());
+    }
+
+    @Override
+    public ImmutablePhoto withTitle(String title) {
+        return new ImmutablePhoto(getAlbumId(), getPhotoId(), PhotoPool.title(title), getUrl(), prefixId,
+                getDate());
+    }
+
+    @Override
+    public String getUrl() {
+        String url = fullUrl;
+        if (url == null) {
+            String suffix = super.getUrl();
+            if (suffix == null) {
+                return null;
+            }
+            url = prefixId == 0 ? suffix : PhotoPool.prefix(prefixId).concat(suffix);
+            fullUrl = url;
+        }
+        return url;
+    }
+
+    @Override
+    public String toString() {
+        return "Photo{" +
+                "albumId=" + getAlbumId() +
+                ", photoId=" + getPhotoId() +
+                ", title='" + getTitle() + '\'' +
+                ", url='" + getUrl() + '\'' +
+                ", date=" + getDate() +
+                '}';
+    }
+
+    // the prefix id means nothing in another process, so the photo travels as its full url
+    private Object writeReplace() {
+        return new SerializedForm(getAlbumId(), getPhotoId(), getTitle(), getUrl(), getDate());
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("ImmutablePhoto is read through its serialized form");
+    }
+
+    private record SerializedForm(int albumId, int photoId, String title, String url, LocalDateTime date)
+            implements Serializable {
+        private Object readResolve() {
+            return new ImmutablePhoto(albumId, photoId, title, url, date);
+        }
+    }
+}
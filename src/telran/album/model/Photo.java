@@ -1,13 +1,19 @@
 package telran.album.model;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
-public class Photo {
-    private int albumId;
-    private int photoId;
-    private String title;
-    private String url;
-    private LocalDateTime date;
+// read-only: albums change a stored photo by replacing it with withUrl or withTitle, so a photo is
+// never written after its constructor and, with all fields final, may be shared by any threads.
+// Serializable so photos can cross a ShardTransport to albums in other processes
+public class Photo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int albumId;
+    private final int photoId;
+    private final String title;
+    private final String url;
+    private final LocalDateTime date;
 
     public Photo(int albumId, int photoId, String title, String url, LocalDateTime date) {
         this.albumId = albumId;
@@ -37,12 +43,14 @@ public class Photo {
         return date;
     }
 
-    public void setUrl(String url) {
-        this.url = url;
+    // a copy with the new url
+    public Photo withUrl(String url) {
+        return new Photo(albumId, photoId, title, url, date);
     }
 
-    public void setTitle(String title) {
-        this.title = title;
+    // a copy with the new title
+    public Photo withTitle(String title) {
+        return new Photo(albumId, photoId, title, url, date);
     }
 
     @Override
@@ -0,0 +1,52 @@
+package telran.album.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// shared tables behind ImmutablePhoto: url prefixes (everything up to the last '/') get a small id
+// and titles are interned. The prefix table only grows and is capped; urls whose prefix does not
+// fit any more keep their whole text as the suffix under id 0, the empty prefix.
+final class PhotoPool {
+    static final int MAX_PREFIXES = 1 << 16;
+
+    private static final ConcurrentHashMap<String, Integer> prefixIds = new ConcurrentHashMap<>();
+    private static volatile String[] prefixes = {""};
+
+    private PhotoPool() {
+    }
+
+    static int prefixId(String url) {
+        int end = url.lastIndexOf('/') + 1;
+        if (end == 0) {
+            return 0;
+        }
+        Integer id = prefixIds.get(url.substring(0, end));
+        return id != null ? id : register(url.substring(0, end));
+    }
+
+    static String prefix(int id) {
+        return prefixes[id];
+    }
+
+    // the title instance other photos with the same title already use
+    static String title(String title) {
+        return title == null ? null : title.intern();
+    }
+
+    private static synchronized int register(String prefix) {
+        Integer id = prefixIds.get(prefix);
+        if (id != null) {
+            return id;
+        }
+        String[] current = prefixes;
+        if (current.length == MAX_PREFIXES) {
+            return 0;
+        }
+        // the array is published before the id so a reader that sees the id also sees its prefix
+        String[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = prefix;
+        prefixes = next;
+        prefixIds.put(prefix, current.length);
+        return current.length;
+    }
+}
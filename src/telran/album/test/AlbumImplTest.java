@@ -0,0 +1,30 @@
+package telran.album.test;
+
+import telran.album.dao.AlbumImpl;
+import telran.album.model.Photo;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// AlbumImpl behaviour beyond the Album contract, which AlbumTest covers
+class AlbumImplTest {
+    final LocalDateTime now = LocalDateTime.now();
+
+    @org.junit.jupiter.api.Test
+    void testFindPhotosInParallel() {
+        int count = 100_000;
+        AlbumImpl large = new AlbumImpl(count);
+        Photo[] batch = new Photo[count];
+        for (int i = 0; i < count; i++) {
+            batch[i] = new Photo(i % 10, i, "Title" + i, "url" + i, now.minusMinutes(i));
+        }
+        assertEquals(count, large.addPhotos(batch));
+        Photo[] actual = large.findPhotos(p -> p.getPhotoId() % 3 == 0);
+        assertEquals((count + 2) / 3, actual.length);
+        for (int i = 0; i < actual.length; i++) {
+            assertSame(batch[3 * i], actual[i]);
+        }
+        assertEquals(count / 10, large.getAllPhotoFromAlbum(7).length);
+    }
+}
@@ -0,0 +1,100 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.AlbumImpl;
+import telran.album.dao.AlbumSnapshot;
+import telran.album.dao.IndexedAlbumImpl;
+import telran.album.model.Photo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// save and load of snapshots; the Album contract of the loaded IndexedAlbumImpl is IndexedAlbumImplTest's
+class AlbumSnapshotTest {
+    final LocalDateTime now = LocalDateTime.now();
+    IndexedAlbumImpl album;
+    Photo[] photos;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        album = new IndexedAlbumImpl();
+        photos = new Photo[]{
+                new Photo(1, 1, "Title1", "https://cdn.example.com/a/1.jpg", now.minusDays(7)),
+                new Photo(1, 2, "Title2", "https://cdn.example.com/a/2.jpg", now.minusDays(6)),
+                new Photo(1, 3, "Title3", "https://cdn.example.com/b/3.jpg", now.minusDays(5)),
+                new Photo(2, 1, "Title1", "url1", now.minusDays(4)),
+                new Photo(-5, Integer.MIN_VALUE, null, null, null),
+                new Photo(Integer.MAX_VALUE, 7, "Фото", "noslash", now.minusYears(80).withNano(1))
+        };
+        album.addPhotos(photos);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRoundTrip() throws IOException {
+        IndexedAlbumImpl loaded = AlbumSnapshot.load(Channels.newChannel(new ByteArrayInputStream(write(album))));
+        assertEquals(album.size(), loaded.size());
+        for (int albumId : new int[]{1, 2, -5, Integer.MAX_VALUE}) {
+            Photo[] expected = album.getAllPhotoFromAlbum(albumId);
+            Photo[] actual = loaded.getAllPhotoFromAlbum(albumId);
+            assertArrayEquals(expected, actual);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i].toString(), actual[i].toString());
+            }
+        }
+        LocalDate from = now.minusDays(6).toLocalDate();
+        assertArrayEquals(album.getPhotoBetweenDate(from, now.toLocalDate()),
+                loaded.getPhotoBetweenDate(from, now.toLocalDate()));
+        assertEquals(2, loaded.searchByTitle("title1").length);
+        assertEquals(album.countPhotosPerAlbum(), loaded.countPhotosPerAlbum());
+        assertEquals(album.countPhotosPerDay(LocalDate.MIN, LocalDate.MAX),
+                loaded.countPhotosPerDay(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(photos[0].getDate(), loaded.getFirstDate(1));
+        assertNull(loaded.getLastDate(-5));
+        assertArrayEquals(album.getLatestPhotos(1, 2), loaded.getLatestPhotos(1, 2));
+        assertTrue(loaded.addPhoto(new Photo(1, 4, "Title4", "url4", now)));
+        assertFalse(loaded.addPhoto(photos[0]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testEmptyAlbumRoundTrip() throws IOException {
+        IndexedAlbumImpl loaded = AlbumSnapshot.load(
+                Channels.newChannel(new ByteArrayInputStream(write(new IndexedAlbumImpl()))));
+        assertEquals(0, loaded.size());
+        assertTrue(loaded.addPhoto(photos[0]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testWritesAnyAlbum() throws IOException {
+        Album plain = new AlbumImpl(photos.length);
+        Arrays.stream(photos).filter(p -> p.getDate() != null).forEach(plain::addPhoto);
+        Photo[] read = AlbumSnapshot.read(Channels.newChannel(new ByteArrayInputStream(write(plain))));
+        Photo[] expected = plain.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX);
+        Arrays.sort(expected, Album.DATE_ORDER);
+        assertArrayEquals(expected, read);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRejectsCorruptSnapshot() throws IOException {
+        byte[] bytes = write(album);
+        bytes[bytes.length / 2] ^= 1;
+        assertThrows(IOException.class,
+                () -> AlbumSnapshot.read(Channels.newChannel(new ByteArrayInputStream(bytes))));
+        assertThrows(IOException.class, () -> AlbumSnapshot.read(
+                Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(write(album), 20)))));
+        assertThrows(IOException.class,
+                () -> AlbumSnapshot.load(Channels.newChannel(new ByteArrayInputStream(bytes))));
+    }
+
+    private static byte[] write(Album album) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AlbumSnapshot.write(album, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+}
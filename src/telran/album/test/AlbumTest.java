@@ -2,6 +2,7 @@ package telran.album.test;
 
 import telran.album.dao.Album;
 import telran.album.dao.AlbumImpl;
+import telran.album.model.ImmutablePhoto;
 import telran.album.model.Photo;
 
 import java.time.LocalDate;
@@ -12,18 +13,18 @@ import java.util.Comparator;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AlbumTest {
-    private final LocalDateTime now = LocalDateTime.now();
-    private final int capacity = 6;
-    private final Comparator<Photo> comparator = (p1, p2) -> {
+    final LocalDateTime now = LocalDateTime.now();
+    final int capacity = 6;
+    final Comparator<Photo> comparator = (p1, p2) -> {
         int res = Integer.compare(p1.getAlbumId(), p2.getAlbumId());
         return res != 0 ? res : Integer.compare(p1.getPhotoId(), p2.getPhotoId());
     };
-    private Album album;
-    private Photo[] photos;
+    Album album;
+    Photo[] photos;
 
     @org.junit.jupiter.api.BeforeEach
     void setUp() {
-        album = new AlbumImpl(capacity);
+        album = createAlbum(capacity);
         photos = new Photo[capacity];
         photos[0] = new Photo(1, 1, "Title1", "url1", now.minusDays(7));
         photos[1] = new Photo(1, 2, "Title2", "url2", now.minusDays(6));
@@ -36,6 +37,10 @@ class AlbumTest {
         }
     }
 
+    Album createAlbum(int capacity) {
+        return new AlbumImpl(capacity);
+    }
+
     @org.junit.jupiter.api.Test
     void testAddPhoto() {
         assertFalse(album.addPhoto(null));
@@ -82,6 +87,91 @@ class AlbumTest {
         assertArrayEquals(expected, actual);
     }
 
+    @org.junit.jupiter.api.Test
+    void testAddPhotos() {
+        Photo extra = new Photo(10, 4, "Title4", "url4", now.minusDays(2));
+        assertEquals(1, album.addPhotos(new Photo[]{null, photos[2], photos[5], photos[5], extra}));
+        assertEquals(capacity, album.size());
+        assertEquals(photos[5], album.getPhotoFromAlbum(4, 1));
+        assertNull(album.getPhotoFromAlbum(4, 10));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRemovePhotos() {
+        Photo[] patterns = {
+                new Photo(1, 1, null, null, null),
+                new Photo(1, 1, null, null, null),
+                new Photo(1, 4, null, null, null),
+                new Photo(2, 1, null, null, null)
+        };
+        assertEquals(2, album.removePhotos(patterns));
+        assertEquals(capacity - 3, album.size());
+        assertNull(album.getPhotoFromAlbum(1, 1));
+        assertNull(album.getPhotoFromAlbum(1, 2));
+        assertEquals(photos[1], album.getPhotoFromAlbum(2, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUpdatePhotos() {
+        Photo[] patterns = {
+                new Photo(1, 2, null, "newUrl2", null),
+                new Photo(1, 4, null, "newUrl4", null),
+                new Photo(2, 4, null, "newUrl24", null)
+        };
+        assertEquals(2, album.updatePhotos(patterns));
+        assertEquals("newUrl2", album.getPhotoFromAlbum(2, 1).getUrl());
+        assertEquals("newUrl24", album.getPhotoFromAlbum(4, 2).getUrl());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testStreamAllPhotoFromAlbum() {
+        Photo[] actual = album.streamAllPhotoFromAlbum(1).sorted(comparator).toArray(Photo[]::new);
+        assertArrayEquals(new Photo[]{photos[0], photos[1], photos[2]}, actual);
+        assertArrayEquals(new Photo[]{photos[1]}, album.streamAllPhotoFromAlbum(1, 1).limit(1).toArray());
+        assertArrayEquals(new Photo[]{photos[2]}, album.streamAllPhotoFromAlbum(1, 2).toArray());
+        assertEquals(0, album.streamAllPhotoFromAlbum(3).count());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testStreamPhotoBetweenDatePages() {
+        LocalDate localDate = LocalDate.now();
+        Photo[] firstPage = album.streamPhotoBetweenDate(localDate.minusDays(6), localDate.minusDays(3), null)
+                .limit(3).toArray(Photo[]::new);
+        assertArrayEquals(new Photo[]{photos[1], photos[2], photos[3]}, firstPage);
+        Photo[] secondPage = album.streamPhotoBetweenDate(localDate.minusDays(6), localDate.minusDays(3), firstPage[2])
+                .limit(3).toArray(Photo[]::new);
+        assertArrayEquals(new Photo[]{photos[4]}, secondPage);
+        assertEquals(4, album.streamPhotoBetweenDate(localDate.minusDays(6), localDate.minusDays(3)).count());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUpdateImmutablePhoto() {
+        ImmutablePhoto photo = new ImmutablePhoto(3, 1, "Title1", "https://cdn.example.com/a/1.jpg", now);
+        assertTrue(album.addPhoto(photo));
+        assertTrue(album.updatePhoto(1, 3, "https://cdn.example.com/a/2.jpg"));
+        assertEquals("https://cdn.example.com/a/1.jpg", photo.getUrl());
+        assertSame(photo.getUrl(), photo.getUrl());
+        Photo updated = album.getPhotoFromAlbum(1, 3);
+        assertEquals("https://cdn.example.com/a/2.jpg", updated.getUrl());
+        assertEquals("Title1", updated.getTitle());
+        assertArrayEquals(new Photo[]{updated}, album.getAllPhotoFromAlbum(3));
+        assertEquals("https://cdn.example.com/a/2.jpg", album.getAllPhotoFromAlbum(3)[0].getUrl());
+        assertTrue(album.updatePhoto(1, 3, null));
+        assertNull(album.getPhotoFromAlbum(1, 3).getUrl());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testGetLatestPhotos() {
+        assertArrayEquals(new Photo[]{photos[4], photos[3]}, album.getLatestPhotos(2));
+        assertArrayEquals(new Photo[]{photos[2], photos[1]}, album.getLatestPhotos(1, 2));
+        assertArrayEquals(new Photo[]{photos[4], photos[3], photos[2], photos[1], photos[0]},
+                album.getLatestPhotos(10));
+        assertArrayEquals(new Photo[]{photos[4], photos[3]}, album.getLatestPhotos(2, 10));
+        assertEquals(0, album.getLatestPhotos(1, 0).length);
+        assertEquals(0, album.getLatestPhotos(5, 3).length);
+        assertThrows(IllegalArgumentException.class, () -> album.getLatestPhotos(-1));
+    }
+
     @org.junit.jupiter.api.Test
     void testSize() {
         assertEquals(capacity - 1, album.size());
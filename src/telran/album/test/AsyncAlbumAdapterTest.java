@@ -0,0 +1,142 @@
+package telran.album.test;
+
+import telran.album.dao.AsyncAlbumAdapter;
+import telran.album.dao.ConcurrentAlbum;
+import telran.album.model.ImmutablePhoto;
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAlbumAdapterTest {
+    final LocalDateTime now = LocalDateTime.now();
+
+    @org.junit.jupiter.api.Test
+    void testOperations() throws Exception {
+        try (AsyncAlbumAdapter async = new AsyncAlbumAdapter(new ConcurrentAlbum(10))) {
+            assertTrue(async.addPhoto(new Photo(1, 1, "Title1", "url1", now)).get(5, TimeUnit.SECONDS));
+            assertFalse(async.addPhoto(new Photo(1, 1, "Title1", "url1", now)).get(5, TimeUnit.SECONDS));
+            assertTrue(async.updatePhoto(1, 1, "newUrl").get(5, TimeUnit.SECONDS));
+            assertEquals("newUrl", async.getPhotoFromAlbum(1, 1).get(5, TimeUnit.SECONDS).getUrl());
+            assertEquals(1, async.getAllPhotoFromAlbum(1).get(5, TimeUnit.SECONDS).length);
+            assertEquals(1, async.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).get(5, TimeUnit.SECONDS).length);
+            assertTrue(async.removePhoto(1, 1).get(5, TimeUnit.SECONDS));
+            assertNull(async.getPhotoFromAlbum(1, 1).get(5, TimeUnit.SECONDS));
+            assertEquals(0, async.size().get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testBatchesPagesAndLatest() throws Exception {
+        Photo[] photos = new Photo[5];
+        for (int i = 0; i < photos.length; i++) {
+            photos[i] = new Photo(1, i + 1, "Title" + i, "url" + i, now.minusDays(i));
+        }
+        try (AsyncAlbumAdapter async = new AsyncAlbumAdapter(new ConcurrentAlbum(10))) {
+            assertEquals(5, async.addPhotos(photos).get(5, TimeUnit.SECONDS));
+            // the cached lookup is detached by the batch update
+            assertEquals("url0", async.getPhotoFromAlbum(1, 1).get(5, TimeUnit.SECONDS).getUrl());
+            assertEquals(1, async.updatePhotos(new Photo[]{photos[0].withUrl("newUrl")}).get(5, TimeUnit.SECONDS));
+            assertEquals("newUrl", async.getPhotoFromAlbum(1, 1).get(5, TimeUnit.SECONDS).getUrl());
+
+            Photo[] page = async.getAllPhotoFromAlbum(1, 2, 2).get(5, TimeUnit.SECONDS);
+            assertArrayEquals(new Photo[]{photos[2], photos[3]}, page);
+            page = async.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX, photos[3], 10).get(5, TimeUnit.SECONDS);
+            assertArrayEquals(new Photo[]{photos[2], photos[1], photos[0]}, page);
+            assertArrayEquals(new Photo[]{photos[0], photos[1]}, async.getLatestPhotos(1, 2).get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new Photo[]{photos[0]}, async.getLatestPhotos(1).get(5, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> async.getAllPhotoFromAlbum(1, 0, -1).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+            assertEquals(2, async.removePhotos(new Photo[]{photos[1], photos[2]}).get(5, TimeUnit.SECONDS));
+            assertEquals(3, async.size().get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testConcurrentLookupsAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ConcurrentAlbum slow = new ConcurrentAlbum() {
+            @Override
+            public Photo getPhotoFromAlbum(int photoId, int albumId) {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getPhotoFromAlbum(photoId, albumId);
+            }
+        };
+        slow.addPhoto(new Photo(1, 1, "Title1", "url1", now));
+        try (AsyncAlbumAdapter async = new AsyncAlbumAdapter(slow)) {
+            List<CompletableFuture<Photo>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(async.getPhotoFromAlbum(1, 1));
+            }
+            futures.get(0).cancel(false);
+            release.countDown();
+            for (CompletableFuture<Photo> future : futures.subList(1, futures.size())) {
+                assertEquals(1, future.get(5, TimeUnit.SECONDS).getPhotoId());
+            }
+            assertEquals(1, calls.get());
+            assertNotNull(async.getPhotoFromAlbum(1, 1).get(5, TimeUnit.SECONDS));
+            assertEquals(2, calls.get());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testReadAfterWriteDoesNotJoinEarlierLookup() throws Exception {
+        CountDownLatch writeGate = new CountDownLatch(1);
+        CountDownLatch readDone = new CountDownLatch(1);
+        CountDownLatch readGate = new CountDownLatch(1);
+        ConcurrentAlbum slow = new ConcurrentAlbum() {
+            @Override
+            public Photo getPhotoFromAlbum(int photoId, int albumId) {
+                Photo photo = super.getPhotoFromAlbum(photoId, albumId);
+                readDone.countDown();
+                try {
+                    readGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return photo;
+            }
+
+            @Override
+            public boolean updatePhoto(int photoId, int albumId, String url) {
+                try {
+                    writeGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.updatePhoto(photoId, albumId, url);
+            }
+        };
+        // immutable, so the stale read keeps the old url instead of seeing the write through a shared object
+        slow.addPhoto(new ImmutablePhoto(1, 1, "Title1", "url1", now));
+        try (AsyncAlbumAdapter async = new AsyncAlbumAdapter(slow)) {
+            CompletableFuture<Boolean> update = async.updatePhoto(1, 1, "newUrl");
+            // submitted after the write but reads the album before the write runs
+            CompletableFuture<Photo> before = async.getPhotoFromAlbum(1, 1);
+            assertTrue(readDone.await(5, TimeUnit.SECONDS));
+            writeGate.countDown();
+            assertTrue(update.get(5, TimeUnit.SECONDS));
+            CompletableFuture<Photo> after = async.getPhotoFromAlbum(1, 1);
+            readGate.countDown();
+            assertEquals("url1", before.get(5, TimeUnit.SECONDS).getUrl());
+            assertEquals("newUrl", after.get(5, TimeUnit.SECONDS).getUrl());
+        }
+    }
+}
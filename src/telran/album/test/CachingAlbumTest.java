@@ -0,0 +1,66 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.CachingAlbum;
+import telran.album.dao.ColumnarAlbumImpl;
+import telran.album.model.Photo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAlbumTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new CachingAlbum(new ColumnarAlbumImpl(capacity), 2);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCountersAndInvalidation() {
+        CachingAlbum cached = (CachingAlbum) album;
+        Photo first = album.getPhotoFromAlbum(1, 1);
+        assertSame(first, album.getPhotoFromAlbum(1, 1));
+        assertEquals(1, cached.hitCount());
+        assertEquals(1, cached.missCount());
+        assertTrue(album.updatePhoto(1, 1, "newUrl"));
+        assertEquals("newUrl", album.getPhotoFromAlbum(1, 1).getUrl());
+        assertTrue(album.removePhoto(1, 1));
+        assertNull(album.getPhotoFromAlbum(1, 1));
+        assertEquals(3, cached.missCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSizeIsBounded() {
+        for (CachingAlbum.EvictionPolicy policy : CachingAlbum.EvictionPolicy.values()) {
+            CachingAlbum cached = new CachingAlbum(new ColumnarAlbumImpl(), 100, policy);
+            for (int i = 0; i < 1000; i++) {
+                cached.addPhoto(new Photo(1, i, "Title", "url", now));
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, cached.getPhotoFromAlbum(i, 1).getPhotoId());
+            }
+            assertTrue(cached.cachedCount() <= 100);
+            assertEquals(900, cached.evictionCount());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testTinyLfuKeepsHotPhotosDuringScan() {
+        CachingAlbum cached = new CachingAlbum(new ColumnarAlbumImpl(), 100, CachingAlbum.EvictionPolicy.TINY_LFU);
+        for (int i = 0; i < 10_000; i++) {
+            cached.addPhoto(new Photo(1, i, "Title", "url", now));
+        }
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                cached.getPhotoFromAlbum(i, 1);
+            }
+        }
+        for (int i = 1000; i < 10_000; i++) {
+            cached.getPhotoFromAlbum(i, 1);
+        }
+        long hits = cached.hitCount();
+        for (int i = 0; i < 50; i++) {
+            cached.getPhotoFromAlbum(i, 1);
+        }
+        assertTrue(cached.hitCount() - hits >= 45);
+    }
+}
@@ -0,0 +1,229 @@
+package telran.album.test;
+
+import telran.album.cdc.ChangeEvent;
+import telran.album.cdc.ChangeListener;
+import telran.album.cdc.ChangeStream;
+import telran.album.cdc.ChangeType;
+import telran.album.dao.Album;
+import telran.album.dao.AlbumImpl;
+import telran.album.dao.ChangeCapturingAlbum;
+import telran.album.dao.ConcurrentAlbum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeCapturingAlbumTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new ChangeCapturingAlbum(new AlbumImpl(capacity), new ChangeStream(64));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testEventsAreDelivered() throws Exception {
+        ChangeStream changes = ((ChangeCapturingAlbum) album).changes();
+        assertEquals(capacity - 1, changes.publishedCount());
+        List<String> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        ChangeStream.Subscription subscription = changes.subscribe(new ChangeListener() {
+            @Override
+            public void onEvent(ChangeEvent event, boolean endOfBatch) {
+                received.add(event.getType() + " " + event.getAlbumId() + "/" + event.getPhotoId()
+                        + (event.getType() == ChangeType.UPDATE ? " " + event.getUrl() : ""));
+                if (event.getType() == ChangeType.REMOVE) {
+                    done.countDown();
+                }
+            }
+        }, 0);
+        assertFalse(album.addPhoto(photos[0]));
+        assertTrue(album.updatePhoto(2, 1, "newUrl"));
+        assertFalse(album.updatePhoto(9, 9, "newUrl"));
+        assertTrue(album.removePhoto(1, 2));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        subscription.close();
+        assertEquals(List.of("ADD 1/1", "ADD 1/2", "ADD 1/3", "ADD 2/1", "ADD 2/4", "UPDATE 1/2 newUrl",
+                "REMOVE 2/1"), received);
+        assertEquals(0, subscription.lag());
+        assertNull(subscription.failure());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testEventsOfOnePhotoFollowTheOrderApplied() throws Exception {
+        CountDownLatch removed = new CountDownLatch(1);
+        CountDownLatch added = new CountDownLatch(1);
+        // the remove is applied, then stalls before it can be published
+        ConcurrentAlbum slow = new ConcurrentAlbum() {
+            @Override
+            public boolean removePhoto(int photoId, int albumId) {
+                boolean res = super.removePhoto(photoId, albumId);
+                removed.countDown();
+                try {
+                    added.await(200, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return res;
+            }
+        };
+        ChangeStream changes = new ChangeStream(16);
+        ChangeCapturingAlbum capturing = new ChangeCapturingAlbum(slow, changes);
+        capturing.addPhoto(photos[0]);
+        Thread adder = new Thread(() -> {
+            try {
+                removed.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            capturing.addPhoto(photos[0]);
+            added.countDown();
+        });
+        adder.start();
+        assertTrue(capturing.removePhoto(photos[0].getPhotoId(), photos[0].getAlbumId()));
+        adder.join(5000);
+        assertEquals(3, changes.publishedCount());
+        List<ChangeType> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        ChangeStream.Subscription subscription = changes.subscribe(new ChangeListener() {
+            @Override
+            public void onEvent(ChangeEvent event, boolean endOfBatch) {
+                received.add(event.getType());
+                done.countDown();
+            }
+        }, 0);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        subscription.close();
+        assertEquals(List.of(ChangeType.ADD, ChangeType.REMOVE, ChangeType.ADD), received);
+        assertNotNull(slow.getPhotoFromAlbum(photos[0].getPhotoId(), photos[0].getAlbumId()));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testNegativeSequenceIsRejected() {
+        ChangeStream changes = ((ChangeCapturingAlbum) album).changes();
+        assertThrows(IllegalArgumentException.class, () -> changes.subscribe(new ChangeListener() {
+            @Override
+            public void onEvent(ChangeEvent event, boolean endOfBatch) {
+                fail("no event expected: " + event.getType());
+            }
+        }, -1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSlowSubscriberIsOverrun() throws Exception {
+        ChangeStream changes = new ChangeStream(16);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong delivered = new AtomicLong();
+        AtomicLong lost = new AtomicLong();
+        ChangeStream.Subscription subscription = changes.subscribe(new ChangeListener() {
+            @Override
+            public void onEvent(ChangeEvent event, boolean endOfBatch) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.incrementAndGet();
+            }
+
+            @Override
+            public void onOverrun(long count) {
+                lost.addAndGet(count);
+            }
+        });
+        changes.publish(ChangeType.REMOVE, 1, 0, null, null);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        // the subscriber is stuck in its first event; writers must still go through
+        for (int i = 1; i <= 1000; i++) {
+            changes.publish(ChangeType.REMOVE, 1, i, null, null);
+        }
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscription.lag() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        subscription.close();
+        assertEquals(0, subscription.lag());
+        assertTrue(lost.get() > 0);
+        assertEquals(1001, delivered.get() + lost.get());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCloseKeepsInterruptStatus() {
+        ChangeStream.Subscription subscription = new ChangeStream(16).subscribe((event, endOfBatch) -> {
+        });
+        Thread.currentThread().interrupt();
+        subscription.close();
+        assertTrue(Thread.interrupted());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testConcurrentWritersLappingTheRing() throws Exception {
+        ChangeStream changes = new ChangeStream(8);
+        int writers = 4;
+        int perWriter = 50_000;
+        AtomicLong delivered = new AtomicLong();
+        AtomicLong lost = new AtomicLong();
+        AtomicLong torn = new AtomicLong();
+        ChangeStream.Subscription subscription = changes.subscribe(new ChangeListener() {
+            @Override
+            public void onEvent(ChangeEvent event, boolean endOfBatch) {
+                if (!String.valueOf(event.getAlbumId() * perWriter + event.getPhotoId()).equals(event.getUrl())) {
+                    torn.incrementAndGet();
+                }
+                delivered.incrementAndGet();
+            }
+
+            @Override
+            public void onOverrun(long count) {
+                lost.addAndGet(count);
+            }
+        }, 0);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int albumId = w;
+            threads.add(new Thread(() -> {
+                for (int photoId = 0; photoId < perWriter; photoId++) {
+                    changes.publish(ChangeType.UPDATE, albumId, photoId, null,
+                            String.valueOf(albumId * perWriter + photoId));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscription.lag() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        subscription.close();
+        assertEquals(0, torn.get());
+        assertEquals((long) writers * perWriter, delivered.get() + lost.get());
+
+        // every slot holds a complete event from the last lap, none was left behind by a lapped writer
+        List<Long> sequences = new ArrayList<>();
+        CountDownLatch full = new CountDownLatch(changes.capacity());
+        ChangeStream.Subscription last = changes.subscribe(new ChangeListener() {
+            @Override
+            public void onEvent(ChangeEvent event, boolean endOfBatch) {
+                sequences.add(event.getSequence());
+                full.countDown();
+            }
+
+            @Override
+            public void onOverrun(long count) {
+                lost.addAndGet(count);
+            }
+        }, changes.publishedCount() - changes.capacity());
+        assertTrue(full.await(5, TimeUnit.SECONDS));
+        last.close();
+        assertEquals(changes.capacity(), sequences.size());
+        assertEquals(changes.publishedCount() - 1, sequences.get(sequences.size() - 1));
+    }
+}
@@ -0,0 +1,73 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.ColumnarAlbumImpl;
+import telran.album.model.Photo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarAlbumImplTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new ColumnarAlbumImpl(capacity);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testPhotoRoundTrip() {
+        Photo photo = album.getPhotoFromAlbum(3, 1);
+        assertEquals("Title3", photo.getTitle());
+        assertEquals("url3", photo.getUrl());
+        assertEquals(photos[2].getDate(), photo.getDate());
+        Photo empty = new Photo(5, 5, null, "", null);
+        assertTrue(album.addPhoto(empty));
+        photo = album.getPhotoFromAlbum(5, 5);
+        assertNull(photo.getTitle());
+        assertEquals("", photo.getUrl());
+        assertNull(photo.getDate());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testStringsSurviveArenaCompaction() {
+        Album columnar = new ColumnarAlbumImpl();
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            assertTrue(columnar.addPhoto(new Photo(i % 3, i, "Заголовок " + i, "url" + i, now)));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < count; i++) {
+                assertTrue(columnar.updatePhoto(i, i % 3, "https://cdn.example.com/" + round + "/" + i));
+            }
+        }
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(columnar.removePhoto(i, i % 3));
+        }
+        for (int i = 1; i < count; i += 2) {
+            Photo photo = columnar.getPhotoFromAlbum(i, i % 3);
+            assertEquals("Заголовок " + i, photo.getTitle());
+            assertEquals("https://cdn.example.com/4/" + i, photo.getUrl());
+        }
+        assertEquals(count / 2, columnar.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testStringsAcrossArenaChunks() {
+        Album columnar = new ColumnarAlbumImpl();
+        String longUrl = "u".repeat(3 << 20);
+        assertTrue(columnar.addPhoto(new Photo(1, 0, "Long", longUrl, now)));
+        int count = 50_000;
+        for (int i = 1; i <= count; i++) {
+            assertTrue(columnar.addPhoto(new Photo(1, i, "Title" + i, "https://cdn.example.com/" + i, now)));
+        }
+        assertEquals(longUrl, columnar.getPhotoFromAlbum(0, 1).getUrl());
+        for (int i = 1; i <= count; i += 997) {
+            assertEquals("Title" + i, columnar.getPhotoFromAlbum(i, 1).getTitle());
+            assertEquals("https://cdn.example.com/" + i, columnar.getPhotoFromAlbum(i, 1).getUrl());
+        }
+        // dropping the long url leaves most of the arena as garbage and compacts it
+        assertTrue(columnar.updatePhoto(0, 1, "short"));
+        assertTrue(columnar.removePhoto(1, 1));
+        assertEquals("short", columnar.getPhotoFromAlbum(0, 1).getUrl());
+        assertEquals("https://cdn.example.com/" + count, columnar.getPhotoFromAlbum(count, 1).getUrl());
+    }
+}
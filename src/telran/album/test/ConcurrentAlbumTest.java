@@ -0,0 +1,157 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.ConcurrentAlbum;
+import telran.album.dao.IndexedAlbumImpl;
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentAlbumTest extends AlbumTest {
+    private static final int THREADS = 8;
+    private static final int PHOTOS_PER_THREAD = 20_000;
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new ConcurrentAlbum(capacity);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testConcurrentWritersAndReaders() throws Exception {
+        Album concurrent = new ConcurrentAlbum();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int albumId = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PHOTOS_PER_THREAD; i++) {
+                        assertTrue(concurrent.addPhoto(new Photo(albumId, i, "Title", "url", now.minusMinutes(i))));
+                        // a second photo with the same ids must be rejected
+                        assertFalse(concurrent.addPhoto(new Photo(albumId, i, "Title", "url", now)));
+                        if (i % 2 == 1) {
+                            assertTrue(concurrent.removePhoto(i, albumId));
+                        }
+                    }
+                    return null;
+                }));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PHOTOS_PER_THREAD; i++) {
+                        Photo photo = concurrent.getPhotoFromAlbum(i, albumId);
+                        assertTrue(photo == null || photo.getAlbumId() == albumId);
+                        if (i % 1000 == 0) {
+                            for (Photo p : concurrent.getAllPhotoFromAlbum(albumId)) {
+                                assertEquals(albumId, p.getAlbumId());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        int expected = THREADS * PHOTOS_PER_THREAD / 2;
+        assertEquals(expected, concurrent.size());
+        assertEquals(expected, concurrent.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).length);
+        for (int t = 0; t < THREADS; t++) {
+            assertEquals(PHOTOS_PER_THREAD / 2, concurrent.getAllPhotoFromAlbum(t).length);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCapacityIsNeverExceededUnderContention() throws Exception {
+        int cap = 1000;
+        Album concurrent = new ConcurrentAlbum(cap);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int albumId = t;
+                futures.add(executor.submit(() -> {
+                    int added = 0;
+                    for (int i = 0; i < cap; i++) {
+                        if (concurrent.addPhoto(new Photo(albumId, i, "Title", "url", now))) {
+                            added++;
+                        }
+                    }
+                    return added;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(cap, total);
+            assertEquals(cap, concurrent.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUpdateTitle() {
+        ConcurrentAlbum concurrent = (ConcurrentAlbum) album;
+        assertTrue(concurrent.updateTitle(1, 1, "Sunset"));
+        assertEquals("Sunset", album.getPhotoFromAlbum(1, 1).getTitle());
+        assertFalse(concurrent.updateTitle(1, 42, "Sunset"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSearchByTitleAcrossStripes() {
+        ConcurrentAlbum concurrent = new ConcurrentAlbum(100, 16);
+        for (int albumId = 0; albumId < 20; albumId++) {
+            concurrent.addPhoto(new Photo(albumId, 1, "Sunset at sea " + albumId, "url", now));
+            concurrent.addPhoto(new Photo(albumId, 2, "Sunrise", "url", now));
+        }
+        assertEquals(20, concurrent.searchByTitle("sunset SEA").length);
+        assertEquals(40, concurrent.searchByTitlePrefix("sun").length);
+        assertTrue(concurrent.updateTitle(2, 7, "Moonrise"));
+        assertArrayEquals(new Photo[]{concurrent.getPhotoFromAlbum(2, 7)}, concurrent.searchByTitle("moonrise"));
+        assertEquals(19, concurrent.searchByTitle("sunrise").length);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testAggregatesAreMergedAcrossStripes() {
+        ConcurrentAlbum concurrent = new ConcurrentAlbum(1000, 16);
+        IndexedAlbumImpl expected = new IndexedAlbumImpl();
+        for (int albumId = 0; albumId < 40; albumId++) {
+            for (int photoId = 0; photoId <= albumId % 5; photoId++) {
+                Photo photo = new Photo(albumId, photoId, "Title", "url",
+                        photoId == 4 ? null : now.minusDays(photoId * 20L + albumId % 3));
+                concurrent.addPhoto(photo);
+                expected.addPhoto(photo);
+            }
+        }
+        concurrent.removePhoto(0, 7);
+        expected.removePhoto(0, 7);
+        assertEquals(expected.countPhotosPerAlbum(), concurrent.countPhotosPerAlbum());
+        assertEquals(expected.countPhotosPerDay(LocalDate.MIN, LocalDate.MAX),
+                concurrent.countPhotosPerDay(LocalDate.MIN, LocalDate.MAX));
+        YearMonth month = YearMonth.from(now);
+        assertEquals(expected.countPhotosPerMonth(month.minusMonths(2), month),
+                concurrent.countPhotosPerMonth(month.minusMonths(2), month));
+        for (int albumId = 0; albumId < 41; albumId++) {
+            assertEquals(expected.countPhotosInAlbum(albumId), concurrent.countPhotosInAlbum(albumId));
+            assertEquals(expected.getFirstDate(albumId), concurrent.getFirstDate(albumId));
+            assertEquals(expected.getLastDate(albumId), concurrent.getLastDate(albumId));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.IndexedAlbumImpl;
+import telran.album.model.ImmutablePhoto;
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedAlbumImplTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new IndexedAlbumImpl(capacity);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRemovedPhotoCanBeAddedAgain() {
+        assertTrue(album.removePhoto(2, 1));
+        assertNull(album.getPhotoFromAlbum(2, 1));
+        assertFalse(album.removePhoto(2, 1));
+        assertTrue(album.addPhoto(photos[1]));
+        assertSame(photos[1], album.getPhotoFromAlbum(2, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testNegativeIdsDoNotCollide() {
+        Photo photo = new Photo(-1, -1, "Title", "url", now);
+        assertTrue(album.addPhoto(photo));
+        assertSame(photo, album.getPhotoFromAlbum(-1, -1));
+        assertNull(album.getPhotoFromAlbum(1, -1));
+        assertNull(album.getPhotoFromAlbum(-1, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testGetAllPhotoFromAlbumFollowsRemovals() {
+        assertTrue(album.removePhoto(1, 2));
+        assertArrayEquals(new Photo[]{photos[4]}, album.getAllPhotoFromAlbum(2));
+        assertTrue(album.removePhoto(4, 2));
+        assertEquals(0, album.getAllPhotoFromAlbum(2).length);
+        assertEquals(0, album.getAllPhotoFromAlbum(42).length);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testGetPhotoBetweenDateIncludesDayBounds() {
+        LocalDate day = now.toLocalDate().plusDays(10);
+        Photo first = new Photo(3, 1, "Title", "url", day.atStartOfDay());
+        assertTrue(album.addPhoto(first));
+        assertArrayEquals(new Photo[]{first}, album.getPhotoBetweenDate(day, day));
+        assertEquals(0, album.getPhotoBetweenDate(day.plusDays(1), day).length);
+        assertTrue(album.removePhoto(1, 3));
+        assertEquals(0, album.getPhotoBetweenDate(day, day).length);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUnboundedAlbumGrowsAcrossSegments() {
+        Album unbounded = new IndexedAlbumImpl();
+        int count = 5000;
+        for (int i = 0; i < count; i++) {
+            assertTrue(unbounded.addPhoto(new Photo(i % 7, i, "Title" + i, "url" + i, now.minusMinutes(i))));
+        }
+        assertEquals(count, unbounded.size());
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(unbounded.removePhoto(i, i % 7));
+        }
+        assertEquals(count / 2, unbounded.size());
+        for (int i = 1; i < count; i += 2) {
+            assertEquals("url" + i, unbounded.getPhotoFromAlbum(i, i % 7).getUrl());
+        }
+        assertEquals(count / 2, unbounded.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).length);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRemoveAllPhotoFromAlbum() {
+        IndexedAlbumImpl indexed = (IndexedAlbumImpl) album;
+        assertEquals(3, indexed.removeAllPhotoFromAlbum(1));
+        assertEquals(0, indexed.removeAllPhotoFromAlbum(1));
+        assertEquals(2, album.size());
+        assertNull(album.getPhotoFromAlbum(1, 1));
+        assertSame(photos[3], album.getPhotoFromAlbum(1, 2));
+        assertSame(photos[4], album.getPhotoFromAlbum(4, 2));
+        assertTrue(album.addPhoto(photos[0]));
+        assertSame(photos[0], album.getPhotoFromAlbum(1, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSearchByTitle() {
+        IndexedAlbumImpl indexed = new IndexedAlbumImpl();
+        assertEquals(photos.length, indexed.addPhotos(photos));
+        Photo sunset = new Photo(3, 1, "Sunset over the Sea", "url", now);
+        Photo sea = new Photo(3, 2, "sea-side walk", "url", now);
+        assertTrue(indexed.addPhoto(sunset));
+        assertTrue(indexed.addPhoto(sea));
+        assertArrayEquals(new Photo[]{sunset}, indexed.searchByTitle("SUNSET sea"));
+        assertEquals(2, indexed.searchByTitle("sea").length);
+        assertEquals(0, indexed.searchByTitle("sunset walk").length);
+        assertArrayEquals(new Photo[]{sea}, indexed.searchByTitlePrefix("Sid"));
+        assertArrayEquals(new Photo[]{photos[0], photos[3]}, sorted(indexed.searchByTitle("title1")));
+        assertEquals(photos.length, indexed.searchByTitlePrefix("title").length);
+
+        assertTrue(indexed.updateTitle(1, 3, "Sunrise"));
+        assertEquals("Sunset over the Sea", sunset.getTitle());
+        Photo sunrise = indexed.getPhotoFromAlbum(1, 3);
+        assertEquals("Sunrise", sunrise.getTitle());
+        assertEquals(0, indexed.searchByTitle("sunset").length);
+        assertArrayEquals(new Photo[]{sunrise}, indexed.searchByTitlePrefix("sunr"));
+        assertArrayEquals(new Photo[]{sea}, indexed.searchByTitle("sea"));
+
+        ImmutablePhoto immutable = new ImmutablePhoto(3, 3, "Sunset", "url", now);
+        assertTrue(indexed.addPhoto(immutable));
+        assertTrue(indexed.updateTitle(3, 3, "Moonrise"));
+        assertEquals("Sunset", immutable.getTitle());
+        assertEquals("Moonrise", indexed.getPhotoFromAlbum(3, 3).getTitle());
+        assertArrayEquals(new Photo[]{indexed.getPhotoFromAlbum(3, 3)}, indexed.searchByTitle("moonrise"));
+
+        assertTrue(indexed.removePhoto(1, 3));
+        assertFalse(indexed.updateTitle(1, 3, "Sunset"));
+        assertEquals(0, indexed.searchByTitlePrefix("sun").length);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testAggregates() {
+        IndexedAlbumImpl indexed = new IndexedAlbumImpl();
+        LocalDateTime march = LocalDateTime.of(2024, 3, 31, 12, 0);
+        Photo first = new Photo(1, 1, "Title1", "url1", march);
+        Photo second = new Photo(1, 2, "Title2", "url2", march.plusHours(1));
+        Photo third = new Photo(1, 3, "Title3", "url3", march.plusDays(1));
+        Photo other = new Photo(2, 1, "Title1", "url1", march.plusDays(1));
+        Photo undated = new Photo(2, 2, "Title2", "url2", null);
+        assertEquals(5, indexed.addPhotos(new Photo[]{first, second, third, other, undated}));
+
+        assertEquals(3, indexed.countPhotosInAlbum(1));
+        assertEquals(0, indexed.countPhotosInAlbum(3));
+        assertEquals(Map.of(1, 3, 2, 2), indexed.countPhotosPerAlbum());
+        assertEquals(march, indexed.getFirstDate(1));
+        assertEquals(march.plusDays(1), indexed.getLastDate(1));
+        assertEquals(march.plusDays(1), indexed.getFirstDate(2));
+        assertNull(indexed.getFirstDate(3));
+        assertEquals(Map.of(march.toLocalDate(), 2, march.toLocalDate().plusDays(1), 2),
+                indexed.countPhotosPerDay(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(Map.of(YearMonth.of(2024, 4), 2),
+                indexed.countPhotosPerMonth(YearMonth.of(2024, 4), YearMonth.of(2024, 12)));
+        assertArrayEquals(new Photo[]{third, second}, indexed.getLatestPhotos(1, 2));
+
+        assertTrue(indexed.removePhoto(1, 1));
+        assertTrue(indexed.updatePhoto(2, 1, "url"));
+        assertEquals(march.plusHours(1), indexed.getFirstDate(1));
+        assertEquals(Map.of(YearMonth.of(2024, 3), 1, YearMonth.of(2024, 4), 2),
+                indexed.countPhotosPerMonth(YearMonth.of(2024, 1), YearMonth.of(2024, 12)));
+        assertEquals(2, indexed.removeAllPhotoFromAlbum(2));
+        assertNull(indexed.getLastDate(2));
+        assertEquals(Map.of(1, 2), indexed.countPhotosPerAlbum());
+        assertEquals(Map.of(march.toLocalDate(), 1, march.toLocalDate().plusDays(1), 1),
+                indexed.countPhotosPerDay(march.toLocalDate(), march.toLocalDate().plusDays(1)));
+        assertEquals(0, indexed.countPhotosPerDay(march.toLocalDate().plusDays(1), march.toLocalDate()).size());
+    }
+
+    private Photo[] sorted(Photo[] photos) {
+        Arrays.sort(photos, comparator);
+        return photos;
+    }
+}
@@ -0,0 +1,98 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.MappedAlbumImpl;
+import telran.album.model.Photo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedAlbumImplTest extends AlbumTest {
+    private Path directory;
+
+    @Override
+    Album createAlbum(int capacity) {
+        try {
+            directory = Files.createTempDirectory("album");
+            return new MappedAlbumImpl(directory, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() throws IOException {
+        ((MappedAlbumImpl) album).close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testPhotosSurviveReopen() throws IOException {
+        assertTrue(album.removePhoto(1, 1));
+        assertTrue(album.updatePhoto(2, 1, "newUrl"));
+        ((MappedAlbumImpl) album).close();
+        album = new MappedAlbumImpl(directory, capacity);
+        assertEquals(capacity - 2, album.size());
+        assertNull(album.getPhotoFromAlbum(1, 1));
+        Photo photo = album.getPhotoFromAlbum(2, 1);
+        assertEquals("newUrl", photo.getUrl());
+        assertEquals("Title2", photo.getTitle());
+        assertEquals(photos[1].getDate(), photo.getDate());
+        assertFalse(album.addPhoto(photos[2]));
+        assertTrue(album.addPhoto(photos[0]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFilesGrowBeyondInitialMapping() throws IOException {
+        try (MappedAlbumImpl large = new MappedAlbumImpl(directory.resolve("large"))) {
+            int count = 5000;
+            for (int i = 0; i < count; i++) {
+                assertTrue(large.addPhoto(new Photo(i % 10, i, "Title" + i, "url" + "/x".repeat(i % 50), now)));
+            }
+            assertEquals(count / 10, large.getAllPhotoFromAlbum(3).length);
+            assertEquals(count, large.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).length);
+            assertEquals("url" + "/x".repeat(4999 % 50), large.getPhotoFromAlbum(4999, 9).getUrl());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testReplacedStringsAreReclaimed() throws IOException {
+        Path strings = directory.resolve("churn").resolve("strings.dat");
+        try (MappedAlbumImpl churn = new MappedAlbumImpl(directory.resolve("churn"))) {
+            int count = 1000;
+            for (int i = 0; i < count; i++) {
+                assertTrue(churn.addPhoto(new Photo(i % 7, i, "Title" + i, null, now)));
+            }
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < count; i++) {
+                    assertTrue(churn.updatePhoto(i, i % 7, "https://cdn.example.com/" + round + "/" + i));
+                }
+            }
+            for (int i = 0; i < count; i += 2) {
+                assertTrue(churn.removePhoto(i, i % 7));
+            }
+            for (int i = 1; i < count; i += 2) {
+                Photo photo = churn.getPhotoFromAlbum(i, i % 7);
+                assertEquals("Title" + i, photo.getTitle());
+                assertEquals("https://cdn.example.com/199/" + i, photo.getUrl());
+            }
+        }
+        // 200 rounds of urls without reclaiming would take about 6 MB
+        assertTrue(Files.size(strings) < 1 << 20);
+        try (MappedAlbumImpl reopened = new MappedAlbumImpl(directory.resolve("churn"))) {
+            assertEquals(500, reopened.size());
+            assertEquals("https://cdn.example.com/199/999", reopened.getPhotoFromAlbum(999, 999 % 7).getUrl());
+        }
+    }
+}
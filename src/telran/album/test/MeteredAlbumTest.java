@@ -0,0 +1,94 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.AlbumImpl;
+import telran.album.dao.MeteredAlbum;
+import telran.album.metrics.AlbumMetrics;
+import telran.album.metrics.Operation;
+import telran.album.model.Photo;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredAlbumTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new MeteredAlbum(new AlbumImpl(capacity));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSnapshot() {
+        AlbumMetrics metrics = ((MeteredAlbum) album).metrics();
+        metrics.reset();
+        int size = album.size();
+        album.getPhotoFromAlbum(1, 1);
+        album.getAllPhotoFromAlbum(1);
+        AlbumMetrics.OperationSnapshot all = metrics.snapshot().get(Operation.getAllPhotoFromAlbum);
+        assertEquals(1, all.count());
+        assertEquals(size, all.elementsScanned());
+        assertEquals(album.getAllPhotoFromAlbum(1).length, all.maxResultSize());
+        assertTrue(all.p50Nanos() <= all.p99Nanos() && all.p99Nanos() <= all.maxNanos());
+        assertEquals(1, metrics.snapshot(Operation.getPhotoFromAlbum).count());
+
+        metrics.setEnabled(false);
+        album.getPhotoFromAlbum(1, 1);
+        assertEquals(1, metrics.snapshot(Operation.getPhotoFromAlbum).count());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testScansAreCountedOnlyWhileEnabled() {
+        AlbumImpl backend = new AlbumImpl(capacity);
+        backend.addPhotos(photos);
+        backend.getAllPhotoFromAlbum(1);
+        assertEquals(0, backend.elementsScanned());
+        MeteredAlbum metered = new MeteredAlbum(backend);
+        metered.getAllPhotoFromAlbum(1);
+        assertEquals(photos.length, backend.elementsScanned());
+        metered.metrics().setEnabled(false);
+        metered.getAllPhotoFromAlbum(1);
+        metered.getAllPhotoFromAlbum(1);
+        assertEquals(photos.length, backend.elementsScanned());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testBatchesAndTopNAreRecorded() {
+        AlbumMetrics metrics = ((MeteredAlbum) album).metrics();
+        metrics.reset();
+        assertEquals(1, album.addPhotos(photos));
+        assertEquals(2, album.updatePhotos(new Photo[]{photos[0], photos[1]}));
+        assertEquals(2, album.getLatestPhotos(2).length);
+        album.getLatestPhotos(1, 2);
+        assertEquals(1, album.removePhotos(new Photo[]{photos[5]}));
+        assertEquals(1, metrics.snapshot(Operation.addPhotos).count());
+        assertEquals(1, metrics.snapshot(Operation.addPhotos).maxResultSize());
+        assertEquals(1, metrics.snapshot(Operation.updatePhotos).count());
+        assertEquals(1, metrics.snapshot(Operation.removePhotos).count());
+        assertEquals(2, metrics.snapshot(Operation.getLatestPhotos).count());
+        assertEquals(0, metrics.snapshot(Operation.addPhoto).count());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testJmx() throws Exception {
+        AlbumMetrics metrics = ((MeteredAlbum) album).metrics();
+        ObjectName name = metrics.register("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            metrics.reset();
+            album.getPhotoFromAlbum(1, 1);
+            assertEquals(1L, server.getAttribute(name, "getPhotoFromAlbumCount"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "getPhotoFromAlbumCount"));
+            assertThrows(ReflectionException.class, () -> server.invoke(name, "restart", null, null));
+            server.setAttribute(name, new Attribute("Enabled", false));
+            assertFalse(metrics.isEnabled());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.MvccAlbum;
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MvccAlbumTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new MvccAlbum(capacity, 4);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSnapshotIsIsolated() {
+        Album snapshot = ((MvccAlbum) album).snapshot();
+        Photo photo = album.getPhotoFromAlbum(2, 1);
+        assertTrue(album.removePhoto(1, 1));
+        assertTrue(album.updatePhoto(2, 1, "newUrl"));
+        assertTrue(album.addPhoto(photos[5]));
+        assertEquals(capacity - 1, snapshot.size());
+        assertNotNull(snapshot.getPhotoFromAlbum(1, 1));
+        assertNull(snapshot.getPhotoFromAlbum(4, 1));
+        assertEquals("url2", snapshot.getPhotoFromAlbum(2, 1).getUrl());
+        assertEquals("url2", photo.getUrl());
+        assertEquals("newUrl", album.getPhotoFromAlbum(2, 1).getUrl());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.addPhoto(photos[5]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testReadersSeeWholeVersionsDuringWrites() throws Exception {
+        MvccAlbum mvcc = new MvccAlbum();
+        int count = 2_000;
+        for (int i = 0; i < count; i++) {
+            mvcc.addPhoto(new Photo(i % 10, i, "Title", "url", now.minusMinutes(i)));
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    int photoId = i % count;
+                    assertTrue(mvcc.removePhoto(photoId, photoId % 10));
+                    assertTrue(mvcc.addPhoto(new Photo(photoId % 10, photoId, "Title", "url" + i,
+                            now.minusMinutes(i))));
+                }
+                done.set(true);
+                return null;
+            });
+            Future<?>[] readers = new Future<?>[2];
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = executor.submit(() -> {
+                    while (!done.get()) {
+                        Album snapshot = mvcc.snapshot();
+                        Photo[] all = snapshot.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX);
+                        assertEquals(snapshot.size(), all.length);
+                        assertEquals(all.length, Arrays.stream(all).distinct().count());
+                        assertTrue(snapshot.size() == count || snapshot.size() == count - 1);
+                    }
+                    return null;
+                });
+            }
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(count, mvcc.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testShardsSplitAsAlbumGrows() {
+        MvccAlbum mvcc = new MvccAlbum(Integer.MAX_VALUE, 1);
+        Album before = mvcc.snapshot();
+        int count = 5_000;
+        Photo[] batch = new Photo[count];
+        for (int i = 0; i < count; i++) {
+            batch[i] = new Photo(i % 7, i, "Title", "url", now.minusMinutes(i));
+            if (i < count / 2) {
+                assertTrue(mvcc.addPhoto(batch[i]));
+            }
+        }
+        assertEquals(count - count / 2, mvcc.addPhotos(batch));
+        assertEquals(0, before.size());
+        assertEquals(count, mvcc.size());
+        for (Photo photo : batch) {
+            assertSame(photo, mvcc.getPhotoFromAlbum(photo.getPhotoId(), photo.getAlbumId()));
+        }
+        assertEquals((count + 6) / 7, mvcc.getAllPhotoFromAlbum(0).length);
+        assertEquals(count, mvcc.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).length);
+        assertArrayEquals(new Photo[]{batch[0], batch[1]}, mvcc.getLatestPhotos(2));
+    }
+}
@@ -0,0 +1,64 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.IndexedAlbumImpl;
+import telran.album.dao.QueryCachingAlbum;
+import telran.album.model.Photo;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCachingAlbumTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new QueryCachingAlbum(new IndexedAlbumImpl(capacity), 16);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testLatestPhotosAreNotCached() {
+        QueryCachingAlbum cached = (QueryCachingAlbum) album;
+        assertEquals(2, album.getLatestPhotos(2).length);
+        assertEquals(2, album.getLatestPhotos(1, 2).length);
+        assertEquals(0, cached.missCount());
+        assertEquals(0, cached.hitCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testInvalidationIsPrecise() {
+        QueryCachingAlbum cached = (QueryCachingAlbum) album;
+        LocalDate today = LocalDate.now();
+        assertEquals(3, album.getAllPhotoFromAlbum(1).length);
+        assertEquals(2, album.getAllPhotoFromAlbum(2).length);
+        assertEquals(1, album.getPhotoBetweenDate(today.minusDays(7), today.minusDays(7)).length);
+        assertEquals(1, album.getPhotoBetweenDate(today.minusDays(3), today.minusDays(3)).length);
+        assertEquals(4, cached.missCount());
+
+        // photos[5] is in album 1, two days ago
+        assertTrue(album.addPhoto(photos[5]));
+        assertEquals(2, album.getAllPhotoFromAlbum(2).length);
+        assertEquals(1, album.getPhotoBetweenDate(today.minusDays(7), today.minusDays(7)).length);
+        assertEquals(1, album.getPhotoBetweenDate(today.minusDays(3), today.minusDays(3)).length);
+        assertEquals(3, cached.hitCount());
+        assertEquals(4, album.getAllPhotoFromAlbum(1).length);
+        assertEquals(5, cached.missCount());
+
+        // photos[4] is in album 2, three days ago
+        assertTrue(album.removePhoto(4, 2));
+        assertEquals(0, album.getPhotoBetweenDate(today.minusDays(3), today.minusDays(3)).length);
+        assertEquals(1, album.getAllPhotoFromAlbum(2).length);
+        assertEquals(4, album.getAllPhotoFromAlbum(1).length);
+        assertEquals(7, cached.missCount());
+        assertEquals(4, cached.hitCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCallerCannotCorruptCachedResult() {
+        Photo[] first = album.getAllPhotoFromAlbum(1);
+        first[0] = null;
+        for (Photo photo : album.getAllPhotoFromAlbum(1)) {
+            assertNotNull(photo);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.AlbumImpl;
+import telran.album.dao.IndexedAlbumImpl;
+import telran.album.dao.LoopbackShardTransport;
+import telran.album.dao.ShardTransport;
+import telran.album.dao.ShardedAlbum;
+import telran.album.model.ImmutablePhoto;
+import telran.album.model.Photo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAlbumTest extends AlbumTest {
+
+    @Override
+    Album createAlbum(int capacity) {
+        return new ShardedAlbum(new LoopbackShardTransport(3, shard -> new IndexedAlbumImpl()), capacity);
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        ((ShardedAlbum) album).close();
+    }
+
+    @org.junit.jupiter.api.Test
+    void testScatterGather() {
+        Album[] shards = new Album[4];
+        try (ShardedAlbum sharded = new ShardedAlbum(new LoopbackShardTransport(shards.length,
+                shard -> shards[shard] = new IndexedAlbumImpl()))) {
+            Photo[] batch = new Photo[1000];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = new Photo(i % 100, i, "Title", "url", now.minusHours(i));
+            }
+            assertEquals(batch.length, sharded.addPhotos(batch));
+            assertEquals(0, sharded.addPhotos(batch));
+            assertEquals(batch.length, sharded.size());
+            for (Album shard : shards) {
+                assertTrue(shard.size() > 0);
+            }
+            Photo[] byDate = sharded.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX);
+            assertEquals(batch.length, byDate.length);
+            for (int i = 0; i < byDate.length; i++) {
+                assertSame(batch[batch.length - 1 - i], byDate[i]);
+            }
+            assertEquals(10, sharded.getAllPhotoFromAlbum(7).length);
+            assertEquals(10, sharded.removePhotos(sharded.getAllPhotoFromAlbum(7)));
+            assertEquals(batch.length - 10, sharded.size());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRangeIsMergedInDateOrder() {
+        // AlbumImpl shards return their photos in insertion order
+        try (ShardedAlbum sharded = new ShardedAlbum(new LoopbackShardTransport(3, shard -> new AlbumImpl(100)))) {
+            for (int i = 0; i < 60; i++) {
+                assertTrue(sharded.addPhoto(new Photo(i % 7, i, "Title", "url", now.minusMinutes((i * 37) % 60))));
+            }
+            Photo[] byDate = sharded.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX);
+            assertEquals(60, byDate.length);
+            for (int i = 1; i < byDate.length; i++) {
+                assertTrue(Album.DATE_ORDER.compare(byDate[i - 1], byDate[i]) < 0);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testShardFailureIsRethrown() {
+        try (ShardedAlbum sharded = new ShardedAlbum(new LoopbackShardTransport(2, shard -> new AlbumImplWithoutDates()))) {
+            assertThrows(UnsupportedOperationException.class,
+                    () -> sharded.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSizeFollowsShardsThatAppliedAFailedBatch() {
+        Album[] shards = new Album[2];
+        try (ShardedAlbum sharded = new ShardedAlbum(new LoopbackShardTransport(shards.length,
+                shard -> shards[shard] = shard == 0 ? new IndexedAlbumImpl() : new AlbumImplWithoutBatches()))) {
+            Photo[] batch = new Photo[100];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = new Photo(i % 10, i, "Title", "url", now.minusHours(i));
+            }
+            assertThrows(UnsupportedOperationException.class, () -> sharded.addPhotos(batch));
+            assertTrue(shards[0].size() > 0);
+            assertEquals(shards[0].size(), sharded.size());
+            assertThrows(UnsupportedOperationException.class, () -> sharded.removePhotos(batch));
+            assertEquals(0, shards[0].size());
+            assertEquals(0, sharded.size());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRequestsAndResultsSerialize() {
+        try (ShardedAlbum sharded = new ShardedAlbum(new SerializingTransport(
+                new LoopbackShardTransport(2, shard -> new IndexedAlbumImpl())))) {
+            ImmutablePhoto immutable = new ImmutablePhoto(3, 1, "Title", "https://cdn.example.com/a/1.jpg", now);
+            assertTrue(sharded.addPhoto(immutable));
+            assertEquals(photos.length, sharded.addPhotos(photos));
+            assertTrue(sharded.updatePhoto(1, 3, "https://cdn.example.com/a/2.jpg"));
+            Photo copy = sharded.getPhotoFromAlbum(1, 3);
+            assertInstanceOf(ImmutablePhoto.class, copy);
+            assertEquals("https://cdn.example.com/a/2.jpg", copy.getUrl());
+            assertEquals(immutable.getDate(), copy.getDate());
+            assertEquals(photos.length + 1, sharded.getPhotoBetweenDate(LocalDate.MIN, LocalDate.MAX).length);
+            assertEquals(4, sharded.getAllPhotoFromAlbum(1).length);
+            assertEquals(1, sharded.removePhotos(new Photo[]{photos[0]}));
+        }
+    }
+
+    // ships every request and its result through Java serialization, as a remote transport would
+    private static class SerializingTransport implements ShardTransport {
+        private final ShardTransport transport;
+
+        SerializingTransport(ShardTransport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public int shardCount() {
+            return transport.shardCount();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> send(int shard, Request<T> request) {
+            return transport.send(shard, (Request<T>) copy(request)).thenApply(res -> (T) copy(res));
+        }
+
+        @Override
+        public void close() {
+            transport.close();
+        }
+
+        private static Object copy(Object object) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(object);
+                }
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                    return in.readObject();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class AlbumImplWithoutBatches extends IndexedAlbumImpl {
+        @Override
+        public int addPhotos(Photo[] photos) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int removePhotos(Photo[] photos) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class AlbumImplWithoutDates extends IndexedAlbumImpl {
+        @Override
+        public Photo[] getPhotoBetweenDate(LocalDate dateFrom, LocalDate dateTo) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
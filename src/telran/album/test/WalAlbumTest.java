@@ -0,0 +1,148 @@
+package telran.album.test;
+
+import telran.album.dao.Album;
+import telran.album.dao.IndexedAlbumImpl;
+import telran.album.dao.WalAlbum;
+import telran.album.model.Photo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalAlbumTest extends AlbumTest {
+    private Path log;
+
+    @Override
+    Album createAlbum(int capacity) {
+        try {
+            log = Files.createTempFile("album", ".wal");
+            return new WalAlbum(new IndexedAlbumImpl(capacity), log, WalAlbum.FsyncPolicy.LAZY, 4, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() throws IOException {
+        ((WalAlbum) album).close();
+        Files.deleteIfExists(log);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRecoveryReplaysLog() throws IOException {
+        assertTrue(album.removePhoto(1, 1));
+        assertTrue(album.updatePhoto(2, 1, "newUrl"));
+        ((WalAlbum) album).close();
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log);
+        assertEquals(capacity - 2, album.size());
+        assertNull(album.getPhotoFromAlbum(1, 1));
+        assertEquals("newUrl", album.getPhotoFromAlbum(2, 1).getUrl());
+        assertEquals(photos[4].getDate(), album.getPhotoFromAlbum(4, 2).getDate());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRecoveryReadsLogInChunks() throws IOException {
+        WalAlbum wal = (WalAlbum) album;
+        String longUrl = "https://cdn.example.com/" + "x".repeat(100_000);
+        for (int i = 0; i < 3000; i++) {
+            assertTrue(wal.updatePhoto(1, 1, "https://cdn.example.com/album/1/photo/" + i));
+        }
+        assertTrue(wal.updatePhoto(2, 1, longUrl));
+        assertTrue(wal.removePhoto(3, 1));
+        wal.close();
+        long size = Files.size(log);
+        assertTrue(size > 3 * (1 << 16));
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log);
+        assertEquals(size, Files.size(log));
+        assertEquals(capacity - 2, album.size());
+        assertEquals("https://cdn.example.com/album/1/photo/2999", album.getPhotoFromAlbum(1, 1).getUrl());
+        assertEquals(longUrl, album.getPhotoFromAlbum(2, 1).getUrl());
+        assertNull(album.getPhotoFromAlbum(3, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testTornTailIsDropped() throws IOException {
+        ((WalAlbum) album).close();
+        long size = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log);
+        assertEquals(capacity - 2, album.size());
+        assertNull(album.getPhotoFromAlbum(4, 2));
+        assertTrue(album.addPhoto(photos[4]));
+        ((WalAlbum) album).close();
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log);
+        assertEquals(capacity - 1, album.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCheckpointTruncatesLog() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            assertTrue(album.updatePhoto(1, 1, "url" + i));
+        }
+        WalAlbum wal = (WalAlbum) album;
+        wal.sync();
+        long before = Files.size(log);
+        wal.checkpoint();
+        assertTrue(Files.size(log) < before);
+        wal.close();
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log);
+        assertEquals(capacity - 1, album.size());
+        assertEquals("url49", album.getPhotoFromAlbum(1, 1).getUrl());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFailedCheckpointKeepsLogging() throws IOException {
+        // a non-empty directory in place of the log makes the rename at the end of the checkpoint fail
+        Path stored = log.resolveSibling(log.getFileName() + ".stored");
+        Files.move(log, stored);
+        Files.createDirectory(log);
+        Path blocker = Files.createFile(log.resolve("blocker"));
+        WalAlbum wal = (WalAlbum) album;
+        try {
+            assertThrows(UncheckedIOException.class, wal::checkpoint);
+            assertFalse(Files.exists(log.resolveSibling(log.getFileName() + ".tmp")));
+            assertTrue(album.removePhoto(1, 1));
+            wal.sync();
+        } finally {
+            Files.delete(blocker);
+            Files.delete(log);
+            Files.move(stored, log);
+        }
+        wal.close();
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log);
+        assertEquals(capacity - 2, album.size());
+        assertNull(album.getPhotoFromAlbum(1, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCheckpointKeepsPhotosWithoutDate() throws IOException {
+        ((WalAlbum) album).close();
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log, WalAlbum.FsyncPolicy.SYNC, 1, 2);
+        Photo undated = new Photo(3, 1, "Title", "url", null);
+        assertTrue(album.addPhoto(undated));
+        assertTrue(album.updatePhoto(1, 3, "newUrl"));
+        assertTrue(album.removePhoto(1, 1));
+        ((WalAlbum) album).close();
+        album = new WalAlbum(new IndexedAlbumImpl(capacity), log);
+        assertEquals(capacity - 1, album.size());
+        assertEquals("newUrl", album.getPhotoFromAlbum(1, 3).getUrl());
+        assertNull(album.getPhotoFromAlbum(1, 3).getDate());
+
+        IndexedAlbumImpl unlogged = new IndexedAlbumImpl(capacity);
+        unlogged.addPhoto(new Photo(4, 1, "Title", "url", null));
+        Path other = Files.createTempFile("album", ".wal");
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new WalAlbum(unlogged, other, WalAlbum.FsyncPolicy.SYNC, 1, 2));
+        } finally {
+            Files.delete(other);
+        }
+    }
+}